@@ -1,7 +1,35 @@
 package org.example;
 
+import org.example.loadgen.LoadGenerator;
+import org.example.loadgen.LoadGeneratorConfig;
+import org.example.loadgen.LoadReport;
+
+import java.util.Arrays;
+
+/**
+ * Workload driver for capacity planning
+ * Runs a mix of box, account and fee operations and writes a throughput and latency report
+ */
 public class Main {
     public static void main(String[] args) {
-        System.out.println("Hello world!");
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.println(LoadGeneratorConfig.usage());
+            return;
+        }
+
+        LoadGeneratorConfig config;
+        try {
+            config = LoadGeneratorConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadGeneratorConfig.usage());
+            System.exit(2);
+            return;
+        }
+
+        LoadReport report = new LoadGenerator(config).run();
+        report.print(System.out);
+        report.write(config.output());
+        System.out.println("Report written to " + config.output().toAbsolutePath());
     }
-}
\ No newline at end of file
+}
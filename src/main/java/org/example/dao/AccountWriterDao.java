@@ -2,7 +2,38 @@ package org.example.dao;
 
 import org.example.model.Account;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 public interface AccountWriterDao {
     public Account createAccount(Account account);
     public void deleteAccount(Account account);
+
+    /**
+     * Creates all the given accounts
+     * Implementations backed by a real store should override this to write the batch in one round-trip
+     *
+     * @param accounts Accounts to create
+     * @return The created accounts, in iteration order of the input
+     */
+    public default List<Account> createAccounts(Collection<? extends Account> accounts) {
+        List<Account> created = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            created.add(createAccount(account));
+        }
+        return created;
+    }
+
+    /**
+     * Deletes all the given accounts
+     * Implementations backed by a real store should override this to delete the batch in one round-trip
+     *
+     * @param accounts Accounts to delete
+     */
+    public default void deleteAccounts(Collection<? extends Account> accounts) {
+        for (Account account : accounts) {
+            deleteAccount(account);
+        }
+    }
 }
@@ -0,0 +1,478 @@
+package org.example.dao;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.example.model.Account;
+import org.example.model.CheckingAccount;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local file-backed account store using fixed-width binary records in memory-mapped segments
+ *
+ * Record layout (32 bytes):
+ *   0  status         byte   (0 = empty, 1 = live, 2 = tombstone)
+ *   1  type           byte   (1 = checking)
+ *   8  account ID     long
+ *   16 balance        double
+ *   24 check number   int
+ *
+ * Behavior:
+ * 1. Creating an account appends a record, creating an existing account ID appends a new copy and
+ *    tombstones the old one once the new copy is on disk, so a crash never leaves a torn live record
+ * 2. Deleting an account marks its record as a tombstone
+ * 3. A background task compacts the file once enough tombstones pile up, by writing the live records
+ *    to a new file, forcing it and renaming it over the old one, so a crash leaves one complete copy
+ * 4. Every write call forces the touched segments to disk before returning, so bulk calls share one sync
+ */
+public class MappedFileAccountDao implements AccountReaderDao, AccountWriterDao, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(MappedFileAccountDao.class);
+
+    static final int RECORD_SIZE = 32;
+
+    private static final int STATUS_OFFSET = 0;
+    private static final int TYPE_OFFSET = 1;
+    private static final int ID_OFFSET = 8;
+    private static final int BALANCE_OFFSET = 16;
+    private static final int CHECK_NUMBER_OFFSET = 24;
+
+    private static final byte STATUS_EMPTY = 0;
+    private static final byte STATUS_LIVE = 1;
+    private static final byte STATUS_TOMBSTONE = 2;
+
+    private static final byte TYPE_CHECKING = 1;
+
+    private static final int DEFAULT_RECORDS_PER_SEGMENT = 64 * 1024;
+    private static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 60_000;
+    private static final double DEFAULT_COMPACTION_THRESHOLD = 0.25;
+
+    private static final String COMPACTION_SUFFIX = ".compact";
+
+    private final Path file;
+    private final int recordsPerSegment;
+    private final long segmentBytes;
+    private final double compactionThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService compactor;
+
+    // Guarded by lock
+    private FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private int nextSlot = 0;
+    private int tombstones = 0;
+    private boolean closed = false;
+
+    public MappedFileAccountDao(Path file) {
+        this(file, DEFAULT_RECORDS_PER_SEGMENT, DEFAULT_COMPACTION_INTERVAL_MILLIS, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param file File the records are stored in, created if missing
+     * @param recordsPerSegment Number of records mapped per segment
+     * @param compactionIntervalMillis How often the background compaction check runs
+     * @param compactionThreshold Fraction of tombstoned records that triggers a compaction
+     */
+    public MappedFileAccountDao(Path file, int recordsPerSegment, long compactionIntervalMillis,
+                                double compactionThreshold) {
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Records per segment must be greater than 0");
+        }
+        if ((long) recordsPerSegment * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must not exceed 2GB");
+        }
+        if (compactionIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Compaction interval must be greater than 0");
+        }
+        if (compactionThreshold <= 0 || compactionThreshold > 1) {
+            throw new IllegalArgumentException("Compaction threshold must be in (0, 1]");
+        }
+
+        this.file = file;
+        this.recordsPerSegment = recordsPerSegment;
+        this.segmentBytes = (long) recordsPerSegment * RECORD_SIZE;
+        this.compactionThreshold = compactionThreshold;
+
+        try {
+            // Left behind by a compaction interrupted before its rename, the original file is still complete
+            Files.deleteIfExists(compactionFile());
+            openFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open account file " + file, e);
+        }
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-file-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.compactor.scheduleWithFixedDelay(this::compactIfNeeded,
+                compactionIntervalMillis, compactionIntervalMillis, TimeUnit.MILLISECONDS);
+
+        logger.info("Opened account file {} - live records: {}, tombstones: {}",
+                file, slotsById.size(), tombstones);
+    }
+
+    @Override
+    public List<Account> readAccounts() {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            List<Account> accounts = new ArrayList<>(slotsById.size());
+            for (int slot = 0; slot < nextSlot; slot++) {
+                MappedByteBuffer segment = segmentFor(slot);
+                int offset = offsetFor(slot);
+                if (segment.get(offset + STATUS_OFFSET) == STATUS_LIVE) {
+                    accounts.add(readRecord(segment, offset));
+                }
+            }
+            return accounts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Account createAccount(Account account) {
+        createAccounts(List.of(account));
+        return account;
+    }
+
+    @Override
+    public void deleteAccount(Account account) {
+        deleteAccounts(List.of(account));
+    }
+
+    @Override
+    public List<Account> createAccounts(Collection<? extends Account> accounts) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            // Reject the whole batch up front so a bad record never leaves a gap in the file
+            for (Account account : accounts) {
+                if (!(account instanceof CheckingAccount)) {
+                    throw new IllegalArgumentException("Unsupported account type: " + account.getClass().getName());
+                }
+            }
+
+            int firstDirtySegment = Integer.MAX_VALUE;
+            int lastDirtySegment = -1;
+            List<Integer> replacedSlots = new ArrayList<>();
+            for (Account account : accounts) {
+                int slot = appendSlot();
+                writeRecord(slot, (CheckingAccount) account);
+                Integer previous = slotsById.put(account.getACCOUNT_ID(), slot);
+                if (previous != null) {
+                    replacedSlots.add(previous);
+                }
+
+                int segmentIndex = slot / recordsPerSegment;
+                firstDirtySegment = Math.min(firstDirtySegment, segmentIndex);
+                lastDirtySegment = Math.max(lastDirtySegment, segmentIndex);
+            }
+            force(firstDirtySegment, lastDirtySegment);
+
+            // Old copies are tombstoned only once the new ones are on disk, a crash in between
+            // leaves two live copies and load() keeps the later one
+            if (!replacedSlots.isEmpty()) {
+                firstDirtySegment = Integer.MAX_VALUE;
+                lastDirtySegment = -1;
+                for (int slot : replacedSlots) {
+                    segmentFor(slot).put(offsetFor(slot) + STATUS_OFFSET, STATUS_TOMBSTONE);
+                    tombstones++;
+
+                    int segmentIndex = slot / recordsPerSegment;
+                    firstDirtySegment = Math.min(firstDirtySegment, segmentIndex);
+                    lastDirtySegment = Math.max(lastDirtySegment, segmentIndex);
+                }
+                force(firstDirtySegment, lastDirtySegment);
+            }
+            logger.debug("Wrote {} account records to {}", accounts.size(), file);
+            return new ArrayList<>(accounts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAccounts(Collection<? extends Account> accounts) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int firstDirtySegment = Integer.MAX_VALUE;
+            int lastDirtySegment = -1;
+            for (Account account : accounts) {
+                Integer slot = slotsById.remove(account.getACCOUNT_ID());
+                if (slot == null) {
+                    logger.warn("Attempted to delete unknown account ID {}", account.getACCOUNT_ID());
+                    continue;
+                }
+                segmentFor(slot).put(offsetFor(slot) + STATUS_OFFSET, STATUS_TOMBSTONE);
+                tombstones++;
+
+                int segmentIndex = slot / recordsPerSegment;
+                firstDirtySegment = Math.min(firstDirtySegment, segmentIndex);
+                lastDirtySegment = Math.max(lastDirtySegment, segmentIndex);
+            }
+            force(firstDirtySegment, lastDirtySegment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the live records to a new file and renames it over the current one
+     * Live records are never moved in place, so a crash at any point leaves either the old
+     * or the new file complete
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (tombstones == 0) {
+                return;
+            }
+
+            int before = nextSlot;
+            Path temp = compactionFile();
+            try {
+                writeLiveRecords(temp);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                forceDirectory();
+            } catch (IOException e) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw new UncheckedIOException("Could not compact account file " + file, e);
+            }
+
+            try {
+                // Switch over to the compacted file
+                segments.clear();
+                channel.close();
+                openFile();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not reopen compacted account file " + file, e);
+            }
+
+            logger.info("Compacted {} - reclaimed {} slots, live records: {}",
+                    file, before - nextSlot, nextSlot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of tombstoned records waiting for compaction
+     * @return Number of tombstones
+     */
+    public int getTombstoneCount() {
+        lock.readLock().lock();
+        try {
+            return tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            compactor.shutdownNow();
+            force(0, segments.size() - 1);
+            segments.clear();
+            channel.close();
+            logger.info("Closed account file {}", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close account file " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void openFile() throws IOException {
+        channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long existingSegments = (channel.size() + segmentBytes - 1) / segmentBytes;
+        for (int i = 0; i < existingSegments; i++) {
+            mapSegment(i);
+        }
+        load();
+    }
+
+    private void load() {
+        slotsById.clear();
+        nextSlot = 0;
+        tombstones = 0;
+        int capacity = segments.size() * recordsPerSegment;
+        for (int slot = 0; slot < capacity; slot++) {
+            MappedByteBuffer segment = segmentFor(slot);
+            int offset = offsetFor(slot);
+            byte status = segment.get(offset + STATUS_OFFSET);
+            if (status == STATUS_EMPTY) {
+                break;
+            }
+            nextSlot = slot + 1;
+            if (status == STATUS_TOMBSTONE) {
+                tombstones++;
+                continue;
+            }
+
+            // A crash while replacing a record can leave two live copies, the later one wins
+            Integer previous = slotsById.put(segment.getLong(offset + ID_OFFSET), slot);
+            if (previous != null) {
+                segmentFor(previous).put(offsetFor(previous) + STATUS_OFFSET, STATUS_TOMBSTONE);
+                tombstones++;
+            }
+        }
+    }
+
+    private Account readRecord(MappedByteBuffer segment, int offset) {
+        byte type = segment.get(offset + TYPE_OFFSET);
+        if (type == TYPE_CHECKING) {
+            return new CheckingAccount(segment.getLong(offset + ID_OFFSET),
+                    segment.getDouble(offset + BALANCE_OFFSET),
+                    segment.getInt(offset + CHECK_NUMBER_OFFSET));
+        }
+        throw new IllegalStateException("Unknown account type " + type + " in " + file);
+    }
+
+    private void writeRecord(int slot, CheckingAccount account) {
+        MappedByteBuffer segment = segmentFor(slot);
+        int offset = offsetFor(slot);
+        segment.put(offset + TYPE_OFFSET, TYPE_CHECKING);
+        segment.putLong(offset + ID_OFFSET, account.getACCOUNT_ID());
+        segment.putDouble(offset + BALANCE_OFFSET, account.getBalance());
+        segment.putInt(offset + CHECK_NUMBER_OFFSET, account.peekNextCheckNumber());
+        // Status goes last so a half-written record in a fresh slot is never seen as live,
+        // records are only ever written to fresh slots for that reason
+        segment.put(offset + STATUS_OFFSET, STATUS_LIVE);
+    }
+
+    /**
+     * Copies every live record into a new file, in slot order, and forces it to disk
+     */
+    private void writeLiveRecords(Path target) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int slot = 0; slot < nextSlot; slot++) {
+                MappedByteBuffer segment = segmentFor(slot);
+                int offset = offsetFor(slot);
+                if (segment.get(offset + STATUS_OFFSET) != STATUS_LIVE) {
+                    continue;
+                }
+                chunk.put(segment.slice(offset, RECORD_SIZE));
+                if (!chunk.hasRemaining()) {
+                    writeFully(out, chunk);
+                }
+            }
+            writeFully(out, chunk);
+            out.force(true);
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) {
+            out.write(chunk);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Makes the rename of the compacted file durable, on platforms that allow forcing a directory
+     */
+    private void forceDirectory() {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not force directory {}", directory, e);
+        }
+    }
+
+    private Path compactionFile() {
+        return file.resolveSibling(file.getFileName() + COMPACTION_SUFFIX);
+    }
+
+    private int appendSlot() {
+        if (nextSlot == segments.size() * recordsPerSegment) {
+            try {
+                mapSegment(segments.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not grow account file " + file, e);
+            }
+        }
+        return nextSlot++;
+    }
+
+    private void mapSegment(int index) throws IOException {
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, index * segmentBytes, segmentBytes));
+        logger.debug("Mapped segment {} of {}", index, file);
+    }
+
+    private void force(int firstSegment, int lastSegment) {
+        for (int i = firstSegment; i <= lastSegment; i++) {
+            segments.get(i).force();
+        }
+    }
+
+    private MappedByteBuffer segmentFor(int slot) {
+        return segments.get(slot / recordsPerSegment);
+    }
+
+    private int offsetFor(int slot) {
+        return (slot % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Account file " + file + " is closed");
+        }
+    }
+
+    private void compactIfNeeded() {
+        try {
+            boolean needed;
+            lock.readLock().lock();
+            try {
+                needed = !closed && nextSlot > 0 && (double) tombstones / nextSlot >= compactionThreshold;
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (needed) {
+                compact();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Background compaction of {} failed", file, e);
+        }
+    }
+}
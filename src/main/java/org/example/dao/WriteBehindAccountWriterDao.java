@@ -0,0 +1,295 @@
+package org.example.dao;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.example.model.Account;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind decorator for an AccountWriterDao
+ *
+ * Behavior:
+ * 1. Writes are buffered and coalesced per account ID - only the latest write for an account is kept
+ * 2. The buffer is flushed to the delegate as one batch when it reaches the batch size,
+ *    or when the flush interval elapses, whichever comes first
+ * 3. If the buffer is full, writers block until a flush frees up space (back-pressure)
+ *    Writes being flushed still count towards the capacity until the delegate accepts them,
+ *    so writes requeued after a failed flush never push the buffer past its capacity
+ * 4. flush() and close() push every buffered write to the delegate before returning
+ */
+public class WriteBehindAccountWriterDao implements AccountWriterDao, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(WriteBehindAccountWriterDao.class);
+
+    private enum WriteType { CREATE, DELETE }
+
+    private record PendingWrite(WriteType type, Account account) {
+    }
+
+    private final AccountWriterDao delegate;
+    private final int batchSize;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    // Serializes flushes so batches reach the delegate in the order they were drained
+    private final Object flushLock = new Object();
+
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by lock
+    private LinkedHashMap<Long, PendingWrite> pending = new LinkedHashMap<>();
+    private int inFlight = 0;
+    private boolean flushRequested = false;
+    private boolean closed = false;
+
+    /**
+     * @param delegate DAO the buffered writes are flushed to
+     * @param batchSize Number of buffered writes that triggers a flush
+     * @param capacity Maximum number of buffered writes before writers block
+     * @param flushIntervalMillis Maximum time a write stays buffered
+     */
+    public WriteBehindAccountWriterDao(AccountWriterDao delegate, int batchSize, int capacity,
+                                       long flushIntervalMillis) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        if (capacity < batchSize) {
+            throw new IllegalArgumentException("Capacity must be at least the batch size");
+        }
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval must be greater than 0");
+        }
+
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::scheduledFlush,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        logger.info("WriteBehindAccountWriterDao created - batch size: {}, capacity: {}, flush interval: {}ms",
+                batchSize, capacity, flushIntervalMillis);
+    }
+
+    @Override
+    public Account createAccount(Account account) {
+        enqueue(List.of(new PendingWrite(WriteType.CREATE, account)));
+        return account;
+    }
+
+    @Override
+    public void deleteAccount(Account account) {
+        enqueue(List.of(new PendingWrite(WriteType.DELETE, account)));
+    }
+
+    @Override
+    public List<Account> createAccounts(Collection<? extends Account> accounts) {
+        List<PendingWrite> writes = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            writes.add(new PendingWrite(WriteType.CREATE, account));
+        }
+        enqueue(writes);
+        return new ArrayList<>(accounts);
+    }
+
+    @Override
+    public void deleteAccounts(Collection<? extends Account> accounts) {
+        List<PendingWrite> writes = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            writes.add(new PendingWrite(WriteType.DELETE, account));
+        }
+        enqueue(writes);
+    }
+
+    /**
+     * Gets the number of writes currently buffered and not yet flushed
+     * @return Number of buffered writes
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Pushes every buffered write to the delegate
+     * Exceptions from the delegate are propagated and the failed writes stay buffered
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Long, PendingWrite> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<Account> creates = new ArrayList<>();
+            List<Account> deletes = new ArrayList<>();
+            for (PendingWrite write : batch.values()) {
+                if (write.type() == WriteType.CREATE) {
+                    creates.add(write.account());
+                } else {
+                    deletes.add(write.account());
+                }
+            }
+
+            logger.debug("Flushing {} creates and {} deletes", creates.size(), deletes.size());
+
+            List<PendingWrite> failed = new ArrayList<>();
+            try {
+                if (!creates.isEmpty()) {
+                    try {
+                        delegate.createAccounts(creates);
+                    } catch (RuntimeException e) {
+                        failed.addAll(batch.values());
+                        throw e;
+                    }
+                }
+                if (!deletes.isEmpty()) {
+                    try {
+                        delegate.deleteAccounts(deletes);
+                    } catch (RuntimeException e) {
+                        for (PendingWrite write : batch.values()) {
+                            if (write.type() == WriteType.DELETE) {
+                                failed.add(write);
+                            }
+                        }
+                        throw e;
+                    }
+                }
+            } finally {
+                finishFlush(failed);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting writes, flushes everything still buffered and stops the flush thread
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Wake blocked writers so they fail fast instead of waiting forever
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Write-behind flush thread did not stop within 5 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+        logger.info("WriteBehindAccountWriterDao closed");
+    }
+
+    private void enqueue(List<PendingWrite> writes) {
+        lock.lock();
+        try {
+            for (PendingWrite write : writes) {
+                long accountId = write.account().getACCOUNT_ID();
+                while (!closed && pending.size() + inFlight >= capacity && !pending.containsKey(accountId)) {
+                    logger.debug("Thread {} waiting - write-behind buffer full ({})",
+                            Thread.currentThread().getName(), capacity);
+                    requestFlush();
+                    notFull.await();
+                }
+                if (closed) {
+                    throw new IllegalStateException("WriteBehindAccountWriterDao is closed");
+                }
+                pending.put(accountId, write);
+            }
+            if (pending.size() >= batchSize) {
+                requestFlush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread interrupted while waiting for write-behind buffer", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must be called with lock held
+    private void requestFlush() {
+        if (!flushRequested) {
+            flushRequested = true;
+            try {
+                scheduler.execute(this::scheduledFlush);
+            } catch (RejectedExecutionException e) {
+                // Shutting down - close() flushes whatever is left
+                flushRequested = false;
+            }
+        }
+    }
+
+    private Map<Long, PendingWrite> drain() {
+        lock.lock();
+        try {
+            Map<Long, PendingWrite> batch = pending;
+            pending = new LinkedHashMap<>();
+            flushRequested = false;
+            // The drained writes keep their space in the buffer until the delegate accepts them
+            inFlight = batch.size();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the space held by the flushed batch and puts the failed writes back
+     * The failed writes fit since they held that space while in flight
+     */
+    private void finishFlush(Collection<PendingWrite> failed) {
+        lock.lock();
+        try {
+            inFlight = 0;
+            // Newer writes for the same account win over the failed ones
+            for (PendingWrite write : failed) {
+                pending.putIfAbsent(write.account().getACCOUNT_ID(), write);
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Write-behind flush failed, writes will be retried", e);
+        }
+    }
+}
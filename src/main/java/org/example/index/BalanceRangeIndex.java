@@ -0,0 +1,316 @@
+package org.example.index;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.example.model.Account;
+import org.example.model.BalanceChangeListener;
+import org.example.model.BalanceChangeType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index of accounts sorted by balance
+ * Backed by a treap keyed on (balance, account ID) where every node tracks its subtree size,
+ * so range counts take logarithmic time instead of a scan
+ *
+ * Indexed accounts are followed through their balance change listener, so deposit, withdraw,
+ * chargeFee and correctBalance move them within the index
+ *
+ * A balance change only marks the account as changed, without taking this index's monitor, so
+ * transfers on unrelated accounts never queue up behind each other here. Changed accounts are
+ * moved to their current balance in one batch before the next query, which therefore sees every
+ * change that completed before it started
+ *
+ * This class is thread safe
+ */
+public class BalanceRangeIndex implements BalanceChangeListener {
+
+    private static final Logger logger = LogManager.getLogger(BalanceRangeIndex.class);
+
+    private static final class Node {
+        final double balance;
+        final long accountId;
+        final Account account;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(double balance, Account account, int priority) {
+            this.balance = balance;
+            this.accountId = account.getACCOUNT_ID();
+            this.account = account;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    // Node currently holding each account, needed because the balance in the tree may be stale
+    // by the time a change notification arrives
+    private final Map<Long, Node> nodesById = new HashMap<>();
+    private Node root;
+
+    // Accounts whose balance changed since the last query, at most one entry per account
+    private final Set<Account> changedAccounts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds an account to the index and starts following its balance changes
+     * Adding an account that is already indexed moves it to its current balance
+     * @param account The account to index
+     */
+    public synchronized void add(Account account) {
+        Node existing = nodesById.get(account.getACCOUNT_ID());
+        if (existing != null) {
+            root = delete(root, existing.balance, existing.accountId);
+            existing.account.removeBalanceChangeListener(this);
+            changedAccounts.remove(existing.account);
+        }
+        // Listen before reading the balance, a change landing in between then marks the account
+        // and the next query moves the node to the balance it ends up with
+        account.addBalanceChangeListener(this);
+        insertNode(account, account.getBalance());
+    }
+
+    /**
+     * Removes an account from the index and stops following its balance changes
+     * @param account The account to remove
+     */
+    public synchronized void remove(Account account) {
+        Node existing = nodesById.remove(account.getACCOUNT_ID());
+        if (existing != null) {
+            root = delete(root, existing.balance, existing.accountId);
+            existing.account.removeBalanceChangeListener(this);
+            changedAccounts.remove(existing.account);
+        }
+    }
+
+    /**
+     * Runs on the thread changing the balance while it holds the account's monitor,
+     * so it only marks the account and leaves moving it to the next query
+     */
+    @Override
+    public void balanceChanged(Account account, BalanceChangeType type, double amount,
+                               double previousBalance, double newBalance) {
+        changedAccounts.add(account);
+    }
+
+    public synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Counts the accounts with a balance between the given bounds
+     * @param from Lower bound
+     * @param fromInclusive Whether an account with a balance equal to the lower bound is counted
+     * @param to Upper bound
+     * @param toInclusive Whether an account with a balance equal to the upper bound is counted
+     * @return Number of accounts in the range
+     */
+    public synchronized int countBetween(double from, boolean fromInclusive, double to, boolean toInclusive) {
+        applyBalanceChanges();
+        int count = countBelow(to, toInclusive) - countBelow(from, !fromInclusive);
+        return Math.max(count, 0);
+    }
+
+    /**
+     * Finds the accounts with a balance between the given bounds
+     * @param from Lower bound
+     * @param fromInclusive Whether an account with a balance equal to the lower bound is included
+     * @param to Upper bound
+     * @param toInclusive Whether an account with a balance equal to the upper bound is included
+     * @return Accounts in the range, ordered by balance
+     */
+    public synchronized List<Account> findBetween(double from, boolean fromInclusive, double to, boolean toInclusive) {
+        applyBalanceChanges();
+        List<Account> accounts = new ArrayList<>();
+        collect(root, from, fromInclusive, to, toInclusive, accounts);
+        return accounts;
+    }
+
+    /**
+     * Counts the accounts in each band delimited by the given upper bounds
+     * Bands are (-inf, b0], (b0, b1], ..., (bn, +inf), the same shape as the fee thresholds
+     *
+     * @param upperBounds Ascending band upper bounds
+     * @return One count per band, upperBounds.length + 1 in total
+     */
+    public synchronized int[] countPerBand(double[] upperBounds) {
+        applyBalanceChanges();
+        int[] counts = new int[upperBounds.length + 1];
+        int below = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            if (i > 0 && upperBounds[i] < upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Band upper bounds must be ascending");
+            }
+            int atOrBelow = countBelow(upperBounds[i], true);
+            counts[i] = atOrBelow - below;
+            below = atOrBelow;
+        }
+        counts[upperBounds.length] = size(root) - below;
+        return counts;
+    }
+
+    /**
+     * Moves every account marked as changed to its current balance
+     * A change landing after its account was taken off the set marks it again for the next query
+     */
+    private void applyBalanceChanges() {
+        Iterator<Account> changed = changedAccounts.iterator();
+        while (changed.hasNext()) {
+            Account account = changed.next();
+            changed.remove();
+            Node existing = nodesById.get(account.getACCOUNT_ID());
+            if (existing == null || existing.account != account) {
+                logger.warn("Balance change for account ID {} which is not indexed", account.getACCOUNT_ID());
+                continue;
+            }
+            double balance = account.getBalance();
+            if (Double.compare(balance, existing.balance) != 0) {
+                root = delete(root, existing.balance, existing.accountId);
+                insertNode(account, balance);
+            }
+        }
+    }
+
+    private void insertNode(Account account, double balance) {
+        Node node = new Node(balance, account, random.nextInt());
+        root = insert(root, node);
+        nodesById.put(node.accountId, node);
+    }
+
+    /**
+     * Number of nodes with a balance below the bound, or at or below it when inclusive
+     */
+    private int countBelow(double bound, boolean inclusive) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = Double.compare(node.balance, bound);
+            if (cmp < 0 || (inclusive && cmp == 0)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private void collect(Node node, double from, boolean fromInclusive, double to, boolean toInclusive,
+                         List<Account> accounts) {
+        if (node == null) {
+            return;
+        }
+        int cmpFrom = Double.compare(node.balance, from);
+        int cmpTo = Double.compare(node.balance, to);
+        boolean aboveFrom = cmpFrom > 0 || (fromInclusive && cmpFrom == 0);
+        boolean belowTo = cmpTo < 0 || (toInclusive && cmpTo == 0);
+
+        if (aboveFrom) {
+            collect(node.left, from, fromInclusive, to, toInclusive, accounts);
+        }
+        if (aboveFrom && belowTo) {
+            accounts.add(node.account);
+        }
+        if (belowTo) {
+            collect(node.right, from, fromInclusive, to, toInclusive, accounts);
+        }
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.priority > node.priority) {
+            Node[] parts = split(node, inserted.balance, inserted.accountId);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            update(inserted);
+            return inserted;
+        }
+        if (compare(inserted.balance, inserted.accountId, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, double balance, long accountId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(balance, accountId, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, balance, accountId);
+        } else {
+            node.right = delete(node.right, balance, accountId);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits a subtree into nodes ordered before the key and nodes ordered at or after it
+     */
+    private static Node[] split(Node node, double balance, long accountId) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        if (compare(balance, accountId, node) > 0) {
+            Node[] parts = split(node.right, balance, accountId);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, balance, accountId);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int compare(double balance, long accountId, Node node) {
+        int cmp = Double.compare(balance, node.balance);
+        return cmp != 0 ? cmp : Long.compare(accountId, node.accountId);
+    }
+
+    private static void update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.index;
+
+import org.example.model.Account;
+
+import java.util.Arrays;
+
+/**
+ * Hash index from account ID to account, keyed on primitive longs
+ * Uses open addressing with linear probing over parallel arrays, so there is no Long boxing
+ * and no per-entry node objects
+ *
+ * This class is not thread safe, callers must guard it
+ */
+public class LongAccountIndex {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Account[] values; // null marks an empty slot
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongAccountIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize Number of accounts the index should hold without resizing
+     */
+    public LongAccountIndex(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Adds an account, replacing any account already indexed under the same ID
+     * @param account The account to index
+     * @return The account previously indexed under the same ID, or null
+     */
+    public Account put(Account account) {
+        long key = account.getACCOUNT_ID();
+        int slot = slotFor(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                Account previous = values[slot];
+                values[slot] = account;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = account;
+        if (++size > resizeThreshold) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Looks up an account by ID
+     * @param accountId The account ID
+     * @return The indexed account, or null if there is none
+     */
+    public Account get(long accountId) {
+        int slot = slotFor(accountId);
+        while (values[slot] != null) {
+            if (keys[slot] == accountId) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Removes an account by ID
+     * @param accountId The account ID
+     * @return The removed account, or null if there was none
+     */
+    public Account remove(long accountId) {
+        int slot = slotFor(accountId);
+        while (values[slot] != null) {
+            if (keys[slot] == accountId) {
+                Account removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Closes the gap left by a removal by moving later entries of the probe chain back,
+     * so lookups never need tombstones
+     */
+    private void shiftBack(int gap) {
+        int slot = (gap + 1) & mask;
+        while (values[slot] != null) {
+            int home = slotFor(keys[slot]);
+            // Move the entry if the gap lies between its home slot and its current slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        Account[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slotFor(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Account[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotFor(long key) {
+        // Fibonacci hashing spreads the sequential account IDs across the table
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, DEFAULT_CAPACITY / 2) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
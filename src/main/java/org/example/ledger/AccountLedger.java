@@ -0,0 +1,808 @@
+package org.example.ledger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.example.model.Account;
+import org.example.model.BalanceChangeListener;
+import org.example.model.BalanceChangeType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only ledger of account balance changes, stored in local segment files
+ *
+ * Behavior:
+ * 1. Every deposit, withdrawal, fee and correction on a followed account is appended as a fixed-width event
+ * 2. Events are buffered and written out by the background thread when the buffer fills or on the flush
+ *    interval, and by the caller on flush()/close()
+ * 3. A segment file is closed and a new one started once it holds the configured number of events
+ * 4. Snapshots store the balances changed since the previous snapshot, with a full snapshot every few rounds,
+ *    so reopening the ledger only replays the events after the latest snapshot
+ * 5. Replay is split by account across all cores, events for one account are always applied in order
+ * 6. Recording a balance change only appends to the in-memory buffer and updates the balances under the
+ *    ledger's monitor. Full buffers are handed to the background thread, which writes and forces them
+ *    under a separate lock, so deposits and withdrawals never wait on disk I/O and never fail because of it
+ *
+ * Event layout (40 bytes):
+ *   0  sequence       long
+ *   8  account ID     long
+ *   16 timestamp      long
+ *   24 amount         double
+ *   32 type           byte   (BalanceChangeType ordinal)
+ */
+public class AccountLedger implements BalanceChangeListener, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(AccountLedger.class);
+
+    static final int RECORD_SIZE = 40;
+
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int ACCOUNT_ID_OFFSET = 8;
+    private static final int TIMESTAMP_OFFSET = 16;
+    private static final int AMOUNT_OFFSET = 24;
+    private static final int TYPE_OFFSET = 32;
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final int SNAPSHOT_MAGIC = 0x4C534E50;
+    private static final byte SNAPSHOT_FULL = 1;
+    private static final byte SNAPSHOT_INCREMENTAL = 2;
+
+    static final int WRITE_BUFFER_EVENTS = 1024;
+
+    private static final int DEFAULT_EVENTS_PER_SEGMENT = 1 << 20;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_MILLIS = 60_000;
+    private static final int DEFAULT_FULL_SNAPSHOT_EVERY = 10;
+
+    private static final BalanceChangeType[] TYPES = BalanceChangeType.values();
+
+    private record SegmentFile(Path path, long firstSequence, int eventCount) {
+    }
+
+    // Events handed off for writing, never spanning two segments
+    private record PendingWrite(ByteBuffer buffer, long firstSequence, boolean endsSegment) {
+    }
+
+    private record SnapshotFile(Path path, long sequence, byte kind) {
+    }
+
+    private record RebuildResult(LedgerBalances balances, LedgerBalances replayed, long snapshotSequence,
+                                 int incrementalsSinceFull, boolean hasFullSnapshot) {
+    }
+
+    private final Path directory;
+    private final int eventsPerSegment;
+    private final int fullSnapshotEvery;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by this
+    private ByteBuffer writeBuffer = newWriteBuffer();
+    private long writeBufferFirstSequence;
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    private final ArrayDeque<ByteBuffer> spareBuffers = new ArrayDeque<>();
+    private int eventsInSegment;
+    private long lastSequence;
+    private long snapshotSequence;
+    private int incrementalsSinceFull;
+    private boolean hasFullSnapshot;
+    private LedgerBalances balances;
+    private LedgerBalances changedSinceSnapshot;
+    private boolean closed = false;
+    private boolean writeRequested = false;
+
+    // Guards the segment channel, pending writes are taken in order and written while holding it
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private FileChannel segmentChannel;
+
+    // Serializes snapshots, which write their file without holding the ledger's monitor
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    public AccountLedger(Path directory) {
+        this(directory, DEFAULT_EVENTS_PER_SEGMENT, DEFAULT_FLUSH_INTERVAL_MILLIS,
+                DEFAULT_SNAPSHOT_INTERVAL_MILLIS, DEFAULT_FULL_SNAPSHOT_EVERY);
+    }
+
+    /**
+     * @param directory Directory holding the segment and snapshot files, created if missing
+     * @param eventsPerSegment Number of events per segment file
+     * @param flushIntervalMillis Maximum time an event stays buffered in memory
+     * @param snapshotIntervalMillis How often a snapshot is taken
+     * @param fullSnapshotEvery Every how many snapshots a full one is written instead of an incremental one
+     */
+    public AccountLedger(Path directory, int eventsPerSegment, long flushIntervalMillis,
+                         long snapshotIntervalMillis, int fullSnapshotEvery) {
+        if (eventsPerSegment <= 0 || (long) eventsPerSegment * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Events per segment must be between 1 and "
+                    + Integer.MAX_VALUE / RECORD_SIZE);
+        }
+        if (flushIntervalMillis <= 0 || snapshotIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Flush and snapshot intervals must be greater than 0");
+        }
+        if (fullSnapshotEvery <= 0) {
+            throw new IllegalArgumentException("Full snapshot frequency must be greater than 0");
+        }
+
+        this.directory = directory;
+        this.eventsPerSegment = eventsPerSegment;
+        this.fullSnapshotEvery = fullSnapshotEvery;
+
+        try {
+            Files.createDirectories(directory);
+            List<SegmentFile> segments = listSegments();
+            repairLastSegment(segments);
+            segments = listSegments();
+
+            RebuildResult rebuilt = rebuild(segments);
+            this.balances = rebuilt.balances();
+            this.changedSinceSnapshot = rebuilt.replayed();
+            this.snapshotSequence = rebuilt.snapshotSequence();
+            this.incrementalsSinceFull = rebuilt.incrementalsSinceFull();
+            this.hasFullSnapshot = rebuilt.hasFullSnapshot();
+
+            // The next segment file is created when its first events are written
+            if (segments.isEmpty()) {
+                this.lastSequence = 0;
+            } else {
+                SegmentFile last = segments.get(segments.size() - 1);
+                this.lastSequence = last.firstSequence() + last.eventCount() - 1;
+                if (last.eventCount() < eventsPerSegment) {
+                    this.segmentChannel = FileChannel.open(last.path(), StandardOpenOption.WRITE);
+                    this.segmentChannel.position((long) last.eventCount() * RECORD_SIZE);
+                    this.eventsInSegment = last.eventCount();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open account ledger in " + directory, e);
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-ledger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::scheduledFlush,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        this.scheduler.scheduleWithFixedDelay(this::scheduledSnapshot,
+                snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+
+        logger.info("Opened account ledger in {} - last sequence: {}, snapshot sequence: {}, accounts: {}",
+                directory, lastSequence, snapshotSequence, balances.size());
+    }
+
+    /**
+     * Starts recording the account's balance changes
+     * If the ledger's balance for the account differs from its current balance,
+     * a correction is recorded first so replay starts from the right value
+     *
+     * @param account The account to follow
+     */
+    public void follow(Account account) {
+        // Holding the account's monitor keeps any balance change from slipping in between
+        synchronized (account) {
+            double recorded = balanceOf(account.getACCOUNT_ID());
+            if (Double.compare(recorded, account.getBalance()) != 0) {
+                record(account.getACCOUNT_ID(), BalanceChangeType.CORRECTION, account.getBalance());
+            }
+            account.addBalanceChangeListener(this);
+        }
+    }
+
+    public void unfollow(Account account) {
+        account.removeBalanceChangeListener(this);
+    }
+
+    @Override
+    public void balanceChanged(Account account, BalanceChangeType type, double amount,
+                               double previousBalance, double newBalance) {
+        // Never throws, the balance has already changed and the other listeners still need to hear about it
+        try {
+            if (append(account.getACCOUNT_ID(), type, amount, false) < 0) {
+                logger.warn("Account ledger closed, dropping {} of {} on account ID {}",
+                        type, amount, account.getACCOUNT_ID());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not record {} of {} on account ID {} in the account ledger",
+                    type, amount, account.getACCOUNT_ID(), e);
+        }
+    }
+
+    /**
+     * Appends an event to the ledger
+     * @param accountId The account the change applies to
+     * @param type What caused the change
+     * @param amount Amount deposited, withdrawn or charged, or the new balance for a correction
+     * @return Sequence number of the recorded event
+     */
+    public long record(long accountId, BalanceChangeType type, double amount) {
+        return append(accountId, type, amount, true);
+    }
+
+    /**
+     * @param failIfClosed Whether to throw when the ledger is closed rather than return -1
+     */
+    private long append(long accountId, BalanceChangeType type, double amount, boolean failIfClosed) {
+        long sequence;
+        synchronized (this) {
+            if (closed && !failIfClosed) {
+                return -1;
+            }
+            ensureOpen();
+            sequence = ++lastSequence;
+            if (writeBuffer.position() == 0) {
+                writeBufferFirstSequence = sequence;
+            }
+            writeBuffer.putLong(sequence);
+            writeBuffer.putLong(accountId);
+            writeBuffer.putLong(System.currentTimeMillis());
+            writeBuffer.putDouble(amount);
+            writeBuffer.put((byte) type.ordinal());
+            writeBuffer.position(writeBuffer.position() + RECORD_SIZE - TYPE_OFFSET - 1);
+            eventsInSegment++;
+
+            boolean endsSegment = eventsInSegment >= eventsPerSegment;
+            if (endsSegment || !writeBuffer.hasRemaining()) {
+                handOffWriteBuffer(endsSegment);
+                requestWrite();
+            }
+
+            double balance = LedgerEvent.apply(type, amount, balances.balanceOf(accountId));
+            balances.put(accountId, balance);
+            changedSinceSnapshot.put(accountId, balance);
+        }
+
+        return sequence;
+    }
+
+    /**
+     * @param accountId The account ID
+     * @return The account's balance according to the ledger, 0 if it has no events
+     */
+    public synchronized double balanceOf(long accountId) {
+        return balances.balanceOf(accountId);
+    }
+
+    /**
+     * @return A copy of every balance the ledger currently knows
+     */
+    public synchronized LedgerBalances currentBalances() {
+        return balances.copy();
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getSnapshotSequence() {
+        return snapshotSequence;
+    }
+
+    /**
+     * Rebuilds all balances from the files on disk - the latest snapshots plus the events after them
+     * Useful to audit the in-memory balances against what has been persisted
+     *
+     * @return The rebuilt balances
+     */
+    public LedgerBalances rebuildBalances() {
+        flush();
+        try {
+            return rebuild(listSegments()).balances();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rebuild balances from " + directory, e);
+        }
+    }
+
+    /**
+     * Reads every event recorded for an account, oldest first
+     * @param accountId The account ID
+     * @return The account's events
+     */
+    public List<LedgerEvent> history(long accountId) {
+        flush();
+        List<LedgerEvent> events = new ArrayList<>();
+        try {
+            for (SegmentFile segment : listSegments()) {
+                MappedByteBuffer buffer = mapSegment(segment);
+                for (int i = 0; i < segment.eventCount(); i++) {
+                    int offset = i * RECORD_SIZE;
+                    if (buffer.getLong(offset + ACCOUNT_ID_OFFSET) == accountId) {
+                        events.add(readEvent(buffer, offset));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read account ledger in " + directory, e);
+        }
+        return events;
+    }
+
+    /**
+     * Writes buffered events to the current segment and forces it to disk
+     */
+    public void flush() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            handOffWriteBuffer(false);
+        }
+        try {
+            writePendingAndForce();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not flush account ledger in " + directory, e);
+        }
+    }
+
+    /**
+     * Writes a snapshot covering every event recorded so far
+     * Writes only the balances changed since the previous snapshot, except every few rounds
+     * when a full snapshot is written and the older snapshots are deleted
+     */
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshot() {
+        long sequence;
+        boolean full;
+        LedgerBalances changed;
+        LedgerBalances contents;
+        // Only the hand-off and the copies happen under the monitor, the files are written outside it
+        synchronized (this) {
+            ensureOpen();
+            if (lastSequence == snapshotSequence) {
+                return;
+            }
+            sequence = lastSequence;
+            full = !hasFullSnapshot || incrementalsSinceFull + 1 >= fullSnapshotEvery;
+            changed = changedSinceSnapshot;
+            changedSinceSnapshot = new LedgerBalances();
+            contents = full ? balances.copy() : changed;
+            handOffWriteBuffer(false);
+        }
+
+        Path target = directory.resolve(snapshotFileName(sequence));
+        Path temp = directory.resolve(snapshotFileName(sequence) + ".tmp");
+        try {
+            // Events up to the snapshot must be on disk first, or a reopened ledger would reuse their sequences
+            writePendingAndForce();
+            writeSnapshotFile(temp, full, sequence, contents);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (full) {
+                deleteSnapshotsBefore(sequence);
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                // Keep the changes for the next snapshot, later changes win over the ones handed off here
+                changed.putAll(changedSinceSnapshot);
+                changedSinceSnapshot = changed;
+            }
+            throw new UncheckedIOException("Could not write ledger snapshot " + target, e);
+        }
+
+        logger.info("Wrote {} ledger snapshot at sequence {} with {} balances",
+                full ? "full" : "incremental", sequence, contents.size());
+        synchronized (this) {
+            snapshotSequence = sequence;
+            incrementalsSinceFull = full ? 0 : incrementalsSinceFull + 1;
+            hasFullSnapshot = true;
+        }
+    }
+
+    private static void writeSnapshotFile(Path file, boolean full, long sequence, LedgerBalances contents)
+            throws IOException {
+        try (FileOutputStream fileStream = new FileOutputStream(file.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileStream))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(full ? SNAPSHOT_FULL : SNAPSHOT_INCREMENTAL);
+            out.writeLong(sequence);
+            out.writeInt(contents.size());
+            IOException[] failure = new IOException[1];
+            contents.forEach((accountId, balance) -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    out.writeLong(accountId);
+                    out.writeDouble(balance);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            out.flush();
+            fileStream.getFD().sync();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Account ledger background thread did not stop within 5 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long closedAt;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            closedAt = lastSequence;
+            handOffWriteBuffer(false);
+        }
+        ioLock.lock();
+        try {
+            writePending();
+            if (segmentChannel != null) {
+                segmentChannel.force(false);
+                segmentChannel.close();
+                segmentChannel = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close account ledger in " + directory, e);
+        } finally {
+            ioLock.unlock();
+        }
+        logger.info("Closed account ledger in {} at sequence {}", directory, closedAt);
+    }
+
+    private RebuildResult rebuild(List<SegmentFile> segments) throws IOException {
+        // Snapshots: the latest full one plus the incremental ones written after it
+        List<SnapshotFile> snapshots = listSnapshots();
+        int fullIndex = -1;
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            if (snapshots.get(i).kind() == SNAPSHOT_FULL) {
+                fullIndex = i;
+                break;
+            }
+        }
+
+        LedgerBalances base = new LedgerBalances();
+        long coveredSequence = 0;
+        int incrementals = 0;
+        if (fullIndex >= 0) {
+            for (SnapshotFile snapshot : snapshots.subList(fullIndex, snapshots.size())) {
+                readSnapshot(snapshot, base);
+                coveredSequence = snapshot.sequence();
+            }
+            incrementals = snapshots.size() - fullIndex - 1;
+        }
+
+        // Events after the snapshots, split by account so each partition replays its accounts in order
+        List<MappedByteBuffer> buffers = new ArrayList<>();
+        List<SegmentFile> replaySegments = new ArrayList<>();
+        for (SegmentFile segment : segments) {
+            if (segment.firstSequence() + segment.eventCount() - 1 > coveredSequence) {
+                buffers.add(mapSegment(segment));
+                replaySegments.add(segment);
+            }
+        }
+
+        int partitions = Runtime.getRuntime().availableProcessors();
+        LedgerBalances[] replayed = new LedgerBalances[partitions];
+        long fromSequence = coveredSequence + 1;
+        IntStream.range(0, partitions).parallel().forEach(partition ->
+                replayed[partition] = replayPartition(partition, partitions, replaySegments, buffers,
+                        fromSequence, base));
+
+        LedgerBalances touched = new LedgerBalances();
+        for (LedgerBalances partial : replayed) {
+            touched.putAll(partial);
+        }
+        base.putAll(touched);
+
+        logger.debug("Rebuilt {} balances from snapshot sequence {} and {} replayed accounts",
+                base.size(), coveredSequence, touched.size());
+        return new RebuildResult(base, touched, coveredSequence, incrementals, fullIndex >= 0);
+    }
+
+    private static LedgerBalances replayPartition(int partition, int partitions, List<SegmentFile> segments,
+                                                  List<MappedByteBuffer> buffers, long fromSequence,
+                                                  LedgerBalances base) {
+        LedgerBalances replayed = new LedgerBalances();
+        for (int s = 0; s < segments.size(); s++) {
+            SegmentFile segment = segments.get(s);
+            MappedByteBuffer buffer = buffers.get(s);
+            int first = (int) Math.max(0, fromSequence - segment.firstSequence());
+            for (int i = first; i < segment.eventCount(); i++) {
+                int offset = i * RECORD_SIZE;
+                long accountId = buffer.getLong(offset + ACCOUNT_ID_OFFSET);
+                if (partitionOf(accountId, partitions) != partition) {
+                    continue;
+                }
+                double balance = replayed.contains(accountId)
+                        ? replayed.balanceOf(accountId)
+                        : base.balanceOf(accountId);
+                balance = LedgerEvent.apply(TYPES[buffer.get(offset + TYPE_OFFSET)],
+                        buffer.getDouble(offset + AMOUNT_OFFSET), balance);
+                replayed.put(accountId, balance);
+            }
+        }
+        return replayed;
+    }
+
+    private static int partitionOf(long accountId, int partitions) {
+        // Account IDs step by 5, so mix them before taking the modulus
+        return (int) ((accountId * 0x9E3779B97F4A7C15L) >>> 33) % partitions;
+    }
+
+    private static LedgerEvent readEvent(MappedByteBuffer buffer, int offset) {
+        return new LedgerEvent(buffer.getLong(offset + SEQUENCE_OFFSET),
+                buffer.getLong(offset + ACCOUNT_ID_OFFSET),
+                TYPES[buffer.get(offset + TYPE_OFFSET)],
+                buffer.getDouble(offset + AMOUNT_OFFSET),
+                buffer.getLong(offset + TIMESTAMP_OFFSET));
+    }
+
+    private void readSnapshot(SnapshotFile snapshot, LedgerBalances into) throws IOException {
+        try (InputStream fileStream = Files.newInputStream(snapshot.path());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(fileStream))) {
+            in.readInt();
+            in.readByte();
+            in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                into.put(in.readLong(), in.readDouble());
+            }
+        }
+    }
+
+    private List<SnapshotFile> listSnapshots() throws IOException {
+        List<SnapshotFile> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (!name.startsWith(SNAPSHOT_PREFIX) || !name.endsWith(SNAPSHOT_SUFFIX)) {
+                    continue;
+                }
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                    if (in.readInt() != SNAPSHOT_MAGIC) {
+                        logger.warn("Ignoring ledger snapshot {} with an unknown format", path);
+                        continue;
+                    }
+                    byte kind = in.readByte();
+                    snapshots.add(new SnapshotFile(path, in.readLong(), kind));
+                }
+            }
+        }
+        snapshots.sort(Comparator.comparingLong(SnapshotFile::sequence));
+        return snapshots;
+    }
+
+    private void deleteSnapshotsBefore(long sequence) throws IOException {
+        for (SnapshotFile snapshot : listSnapshots()) {
+            if (snapshot.sequence() < sequence) {
+                Files.delete(snapshot.path());
+            }
+        }
+    }
+
+    private List<SegmentFile> listSegments() throws IOException {
+        List<SegmentFile> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+                    continue;
+                }
+                long firstSequence = Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.add(new SegmentFile(path, firstSequence, (int) (Files.size(path) / RECORD_SIZE)));
+            }
+        }
+        segments.sort(Comparator.comparingLong(SegmentFile::firstSequence));
+        return segments;
+    }
+
+    /**
+     * Cuts off a partially written event left behind by a crash
+     */
+    private void repairLastSegment(List<SegmentFile> segments) throws IOException {
+        if (segments.isEmpty()) {
+            return;
+        }
+        Path last = segments.get(segments.size() - 1).path();
+        long size = Files.size(last);
+        if (size % RECORD_SIZE != 0) {
+            logger.warn("Truncating partially written event at the end of {}", last);
+            try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+                channel.truncate(size - size % RECORD_SIZE);
+            }
+        }
+    }
+
+    private MappedByteBuffer mapSegment(SegmentFile segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) segment.eventCount() * RECORD_SIZE);
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        segmentChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        logger.debug("Started ledger segment {}", path);
+    }
+
+    /**
+     * Queues the buffered events for writing and starts a new buffer, must hold the monitor
+     * @param endsSegment Whether the buffered events fill up the current segment
+     */
+    private void handOffWriteBuffer(boolean endsSegment) {
+        if (endsSegment) {
+            eventsInSegment = 0;
+        }
+        if (writeBuffer.position() == 0) {
+            return;
+        }
+        writeBuffer.flip();
+        pendingWrites.addLast(new PendingWrite(writeBuffer, writeBufferFirstSequence, endsSegment));
+        ByteBuffer spare = spareBuffers.pollFirst();
+        writeBuffer = spare != null ? spare : newWriteBuffer();
+    }
+
+    /**
+     * Writes the handed off events in order, without holding the monitor
+     */
+    private void writePending() throws IOException {
+        ioLock.lock();
+        try {
+            while (true) {
+                PendingWrite pending;
+                synchronized (this) {
+                    pending = pendingWrites.pollFirst();
+                }
+                if (pending == null) {
+                    return;
+                }
+                try {
+                    writeToSegment(pending);
+                } catch (IOException e) {
+                    synchronized (this) {
+                        pendingWrites.addFirst(pending);
+                    }
+                    throw e;
+                }
+                synchronized (this) {
+                    spareBuffers.addLast(pending.buffer().clear());
+                }
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Has the background thread write the handed off buffers, must hold the monitor
+     */
+    private void requestWrite() {
+        if (!writeRequested) {
+            writeRequested = true;
+            try {
+                scheduler.execute(this::scheduledWrite);
+            } catch (RejectedExecutionException e) {
+                // Shutting down - close() writes whatever is left
+                writeRequested = false;
+            }
+        }
+    }
+
+    private void writePendingAndForce() throws IOException {
+        ioLock.lock();
+        try {
+            writePending();
+            if (segmentChannel != null) {
+                segmentChannel.force(false);
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void writeToSegment(PendingWrite pending) throws IOException {
+        if (segmentChannel == null) {
+            openSegment(pending.firstSequence());
+        }
+        ByteBuffer buffer = pending.buffer();
+        while (buffer.hasRemaining()) {
+            segmentChannel.write(buffer);
+        }
+        if (pending.endsSegment()) {
+            segmentChannel.force(false);
+            segmentChannel.close();
+            segmentChannel = null;
+        }
+    }
+
+    private static ByteBuffer newWriteBuffer() {
+        return ByteBuffer.allocateDirect(WRITE_BUFFER_EVENTS * RECORD_SIZE);
+    }
+
+    private static String snapshotFileName(long sequence) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Account ledger in " + directory + " is closed");
+        }
+    }
+
+    private void scheduledWrite() {
+        synchronized (this) {
+            writeRequested = false;
+        }
+        try {
+            writePending();
+        } catch (IOException e) {
+            // The failed buffer stays queued and the next flush retries it
+            logger.error("Background write of account ledger in {} failed, will retry", directory, e);
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Background flush of account ledger in {} failed", directory, e);
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.error("Background snapshot of account ledger in {} failed", directory, e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.ledger;
+
+/**
+ * Account balances rebuilt from the ledger, keyed on primitive account IDs
+ * Uses open addressing with linear probing over parallel arrays so a million balances
+ * do not cost a million boxed entries
+ *
+ * Mutation is package-private and not thread safe, the ledger guards it
+ */
+public class LedgerBalances {
+
+    @FunctionalInterface
+    public interface BalanceConsumer {
+        void accept(long accountId, double balance);
+    }
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    LedgerBalances() {
+        this(16);
+    }
+
+    LedgerBalances(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 8) / LOAD_FACTOR);
+        allocate(Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * @param accountId The account ID
+     * @return Whether the ledger holds a balance for the account
+     */
+    public boolean contains(long accountId) {
+        return slotOf(accountId) >= 0;
+    }
+
+    /**
+     * @param accountId The account ID
+     * @return The account's balance, or 0 if the ledger has never seen the account
+     */
+    public double balanceOf(long accountId) {
+        int slot = slotOf(accountId);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(BalanceConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    void put(long accountId, double balance) {
+        int slot = slotFor(accountId);
+        while (used[slot]) {
+            if (keys[slot] == accountId) {
+                values[slot] = balance;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = accountId;
+        values[slot] = balance;
+        used[slot] = true;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    void putAll(LedgerBalances other) {
+        other.forEach(this::put);
+    }
+
+    LedgerBalances copy() {
+        LedgerBalances copy = new LedgerBalances(size);
+        copy.putAll(this);
+        return copy;
+    }
+
+    private int slotOf(long accountId) {
+        int slot = slotFor(accountId);
+        while (used[slot]) {
+            if (keys[slot] == accountId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(keys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotFor(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.ledger;
+
+import org.example.model.BalanceChangeType;
+
+/**
+ * One balance change recorded in the account ledger
+ * @param sequence Position in the ledger, starting at 1 with no gaps
+ * @param accountId The account the change applies to
+ * @param type What caused the change
+ * @param amount Amount deposited, withdrawn or charged, or the new balance for a correction
+ * @param timestampMillis When the change was recorded
+ */
+public record LedgerEvent(long sequence, long accountId, BalanceChangeType type, double amount,
+                          long timestampMillis) {
+
+    /**
+     * Applies this event to a balance, the same way Account applies the change
+     * @param balance Balance before the event
+     * @return Balance after the event
+     */
+    public double applyTo(double balance) {
+        return apply(type, amount, balance);
+    }
+
+    static double apply(BalanceChangeType type, double amount, double balance) {
+        return switch (type) {
+            case DEPOSIT -> balance + amount;
+            case WITHDRAWAL, FEE -> balance - amount;
+            case CORRECTION -> amount;
+        };
+    }
+}
@@ -0,0 +1,386 @@
+package org.example.loadgen;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import org.example.dao.MappedFileAccountDao;
+import org.example.loadgen.LoadGeneratorConfig.Operation;
+import org.example.model.Account;
+import org.example.model.CheckingAccount;
+import org.example.model.SafetyDepositBox;
+import org.example.service.AccountService;
+import org.example.service.AccountServiceImpl;
+import org.example.service.FeeCalculatorService;
+import org.example.service.FeeCalculatorServiceImpl;
+import org.example.service.SafetyDepositBoxService;
+import org.example.service.TransferService;
+import org.example.service.TransferServiceImpl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a configurable mix of box, account, transfer and fee operations from many threads
+ * and measures throughput and latency per operation
+ *
+ * Behavior:
+ * 1. Creates the box pool and an account store pre-filled with accounts spread across the fee bands
+ * 2. Starts the workers, lets them run through the warmup, then measures for the configured duration
+ * 3. Latencies are recorded into striped histograms so even thousands of virtual threads share a few of them
+ * 4. Workers still running a grace period after the run ends are interrupted and reported as stuck
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = LogManager.getLogger(LoadGenerator.class);
+
+    static final String BOX_ALLOCATE = "box-allocate";
+    static final String BOX_RELEASE = "box-release";
+    static final String ACCOUNT_CREATE = "account-create";
+    static final String ACCOUNT_DEPOSIT = "account-deposit";
+    static final String ACCOUNT_WITHDRAW = "account-withdraw";
+    static final String ACCOUNT_TRANSFER = "account-transfer";
+    static final String FEE_RUN = "fee-run";
+
+    private static final long STOP_GRACE_MILLIS = 10_000;
+
+    private static final List<String> METRICS = List.of(
+            BOX_ALLOCATE, BOX_RELEASE, ACCOUNT_CREATE, ACCOUNT_DEPOSIT, ACCOUNT_WITHDRAW, ACCOUNT_TRANSFER, FEE_RUN);
+
+    private final LoadGeneratorConfig config;
+
+    // One stripe per core, each guarded by its own monitor
+    private final List<Map<String, LatencyHistogram>> histogramStripes = new ArrayList<>();
+    private final Map<Operation, LongAdder> completed = new EnumMap<>(Operation.class);
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+
+    private volatile boolean measuring = false;
+    private volatile boolean stopped = false;
+
+    private SafetyDepositBoxService boxService;
+    private AccountService accountService;
+    private TransferService transferService;
+    private final FeeCalculatorService feeCalculator = new FeeCalculatorServiceImpl();
+    private long[] accountIds;
+
+    public LoadGenerator(LoadGeneratorConfig config) {
+        this.config = config;
+        int stripes = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < stripes; i++) {
+            Map<String, LatencyHistogram> stripe = new LinkedHashMap<>();
+            METRICS.forEach(metric -> stripe.put(metric, new LatencyHistogram()));
+            histogramStripes.add(stripe);
+        }
+        for (Operation operation : Operation.values()) {
+            completed.put(operation, new LongAdder());
+        }
+        METRICS.forEach(metric -> errors.put(metric, new LongAdder()));
+    }
+
+    /**
+     * Runs the workload and blocks until it finishes
+     * @return The measured results
+     */
+    public LoadReport run() {
+        Level previousLevel = LogManager.getRootLogger().getLevel();
+        Configurator.setAllLevels(LogManager.getRootLogger().getName(), Level.toLevel(config.logLevel(), Level.WARN));
+
+        Path accountFile = config.accountFile();
+        boolean temporaryFile = accountFile == null;
+        try {
+            if (temporaryFile) {
+                accountFile = Files.createTempFile("loadgen-accounts", ".dat");
+            }
+            try (MappedFileAccountDao accountDao = new MappedFileAccountDao(accountFile)) {
+                setUp(accountDao);
+                List<Thread> workers = startWorkers();
+                long measuredNanos = measure();
+                List<String> stuckWorkers = stopWorkers(workers);
+                return buildReport(measuredNanos, stuckWorkers);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create account file", e);
+        } finally {
+            if (temporaryFile && accountFile != null) {
+                try {
+                    Files.deleteIfExists(accountFile);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temporary account file {}", accountFile, e);
+                }
+            }
+            Configurator.setAllLevels(LogManager.getRootLogger().getName(), previousLevel);
+        }
+    }
+
+    private void setUp(MappedFileAccountDao accountDao) {
+        SafetyDepositBoxService.setNumberOfSafetyDepositBoxes(config.boxPoolSize());
+        boxService = SafetyDepositBoxService.getInstance();
+        accountService = new AccountServiceImpl(accountDao, accountDao);
+        transferService = new TransferServiceImpl(accountService);
+
+        SplittableRandom random = new SplittableRandom(config.seed());
+        List<Account> accounts = new ArrayList<>(config.initialAccounts());
+        for (int i = 0; i < config.initialAccounts(); i++) {
+            Account account = new CheckingAccount();
+            // Spread balances across every fee band
+            account.correctBalance(random.nextInt(3000));
+            accounts.add(account);
+        }
+        accountService.createAccounts(accounts);
+
+        accountIds = new long[accounts.size()];
+        for (int i = 0; i < accounts.size(); i++) {
+            accountIds[i] = accounts.get(i).getACCOUNT_ID();
+        }
+        // Builds the ID index outside the measured window
+        accountService.findById(accountIds[0]);
+
+        logger.info("Load generator set up with {} boxes and {} accounts",
+                config.boxPoolSize(), accounts.size());
+    }
+
+    private List<Thread> startWorkers() {
+        ThreadFactory factory = config.virtualThreads()
+                ? Thread.ofVirtual().name("loadgen-", 0).factory()
+                : Thread.ofPlatform().name("loadgen-", 0).factory();
+
+        int[] cumulativeWeights = cumulativeWeights();
+        SplittableRandom seeds = new SplittableRandom(config.seed());
+        List<Thread> workers = new ArrayList<>(config.threads());
+        for (int i = 0; i < config.threads(); i++) {
+            Map<String, LatencyHistogram> stripe = histogramStripes.get(i % histogramStripes.size());
+            SplittableRandom random = seeds.split();
+            workers.add(factory.newThread(() -> work(random, cumulativeWeights, stripe)));
+        }
+        workers.forEach(Thread::start);
+        return workers;
+    }
+
+    private long measure() {
+        long measuredNanos;
+        try {
+            Thread.sleep(config.warmup().toMillis());
+            measuring = true;
+            long start = System.nanoTime();
+            Thread.sleep(config.duration().toMillis());
+            measuring = false;
+            measuredNanos = System.nanoTime() - start;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running the load generator", e);
+        } finally {
+            stopped = true;
+        }
+
+        return measuredNanos;
+    }
+
+    /**
+     * Waits for the workers to finish their current operation, up to a grace period shared by all of them
+     * @return Names of the workers that did not finish in time, they are interrupted rather than waited for
+     */
+    private List<String> stopWorkers(List<Thread> workers) {
+        long graceMillis = STOP_GRACE_MILLIS + config.boxHoldMillis();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(graceMillis);
+        List<String> stuckWorkers = new ArrayList<>();
+        for (Thread worker : workers) {
+            try {
+                long remaining = Math.max(deadline - System.nanoTime(), 0);
+                if (!worker.join(Duration.ofNanos(remaining))) {
+                    stuckWorkers.add(worker.getName());
+                    worker.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for load generator workers", e);
+            }
+        }
+        if (!stuckWorkers.isEmpty()) {
+            logger.error("{} of {} load generator workers did not stop within {} ms: {}",
+                    stuckWorkers.size(), workers.size(), graceMillis, stuckWorkers);
+        }
+        return stuckWorkers;
+    }
+
+    private void work(SplittableRandom random, int[] cumulativeWeights, Map<String, LatencyHistogram> stripe) {
+        Operation[] operations = Operation.values();
+        int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+        while (!stopped) {
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= pick) {
+                index++;
+            }
+            Operation operation = operations[index];
+            try {
+                switch (operation) {
+                    case BOX -> runBox(stripe);
+                    case CREATE -> runCreate(stripe);
+                    case DEPOSIT -> runDeposit(random, stripe);
+                    case WITHDRAW -> runWithdraw(random, stripe);
+                    case TRANSFER -> runTransfer(random, stripe);
+                    case FEE -> runFee(random, stripe);
+                }
+                if (measuring) {
+                    completed.get(operation).increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void runBox(Map<String, LatencyHistogram> stripe) throws InterruptedException {
+        long start = System.nanoTime();
+        SafetyDepositBox box;
+        try {
+            box = boxService.allocateSafetyDepositBox();
+        } catch (RuntimeException e) {
+            fail(BOX_ALLOCATE, e);
+            return;
+        }
+        long allocated = System.nanoTime();
+        record(stripe, BOX_ALLOCATE, allocated - start);
+
+        try {
+            if (config.boxHoldMillis() > 0) {
+                Thread.sleep(config.boxHoldMillis());
+            }
+        } finally {
+            long releaseStart = System.nanoTime();
+            boxService.releaseSafetyDepositBox(box);
+            record(stripe, BOX_RELEASE, System.nanoTime() - releaseStart);
+        }
+    }
+
+    private void runCreate(Map<String, LatencyHistogram> stripe) {
+        long start = System.nanoTime();
+        try {
+            accountService.createAccount(new CheckingAccount());
+            record(stripe, ACCOUNT_CREATE, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            fail(ACCOUNT_CREATE, e);
+        }
+    }
+
+    private void runDeposit(SplittableRandom random, Map<String, LatencyHistogram> stripe) {
+        long accountId = accountIds[random.nextInt(accountIds.length)];
+        double amount = 1 + random.nextInt(200);
+        long start = System.nanoTime();
+        try {
+            accountService.findById(accountId).ifPresent(account -> account.deposit(amount));
+            record(stripe, ACCOUNT_DEPOSIT, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            fail(ACCOUNT_DEPOSIT, e);
+        }
+    }
+
+    private void runWithdraw(SplittableRandom random, Map<String, LatencyHistogram> stripe) {
+        long accountId = accountIds[random.nextInt(accountIds.length)];
+        double amount = 1 + random.nextInt(200);
+        long start = System.nanoTime();
+        try {
+            accountService.findById(accountId).ifPresent(account -> account.withdrawIfSufficient(amount));
+            record(stripe, ACCOUNT_WITHDRAW, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            fail(ACCOUNT_WITHDRAW, e);
+        }
+    }
+
+    private void runTransfer(SplittableRandom random, Map<String, LatencyHistogram> stripe) {
+        long fromAccountId = accountIds[random.nextInt(accountIds.length)];
+        long toAccountId = accountIds[random.nextInt(accountIds.length)];
+        if (fromAccountId == toAccountId) {
+            return;
+        }
+        double amount = 1 + random.nextInt(200);
+        long start = System.nanoTime();
+        try {
+            // Insufficient funds is a normal outcome and is measured like a completed transfer
+            transferService.transfer(fromAccountId, toAccountId, amount);
+            record(stripe, ACCOUNT_TRANSFER, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            fail(ACCOUNT_TRANSFER, e);
+        }
+    }
+
+    private void runFee(SplittableRandom random, Map<String, LatencyHistogram> stripe) {
+        long accountId = accountIds[random.nextInt(accountIds.length)];
+        long start = System.nanoTime();
+        try {
+            Optional<Account> account = accountService.findById(accountId);
+            if (account.isPresent()) {
+                double fee = feeCalculator.calculateFee(account.get().getBalance());
+                if (fee > 0) {
+                    account.get().chargeFee(fee);
+                }
+            }
+            record(stripe, FEE_RUN, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            fail(FEE_RUN, e);
+        }
+    }
+
+    private void record(Map<String, LatencyHistogram> stripe, String metric, long nanos) {
+        if (!measuring) {
+            return;
+        }
+        LatencyHistogram histogram = stripe.get(metric);
+        synchronized (histogram) {
+            histogram.record(nanos);
+        }
+    }
+
+    private void fail(String metric, RuntimeException e) {
+        logger.error("Load generator operation {} failed", metric, e);
+        if (measuring) {
+            errors.get(metric).increment();
+        }
+    }
+
+    private int[] cumulativeWeights() {
+        Operation[] operations = Operation.values();
+        int[] cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.mix().getOrDefault(operations[i], 0);
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    private LoadReport buildReport(long measuredNanos, List<String> stuckWorkers) {
+        Map<String, LatencyHistogram> merged = new LinkedHashMap<>();
+        for (String metric : METRICS) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (Map<String, LatencyHistogram> stripe : histogramStripes) {
+                LatencyHistogram part = stripe.get(metric);
+                synchronized (part) {
+                    histogram.merge(part);
+                }
+            }
+            merged.put(metric, histogram);
+        }
+
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        errors.forEach((metric, count) -> errorCounts.put(metric, count.sum()));
+        long totalOperations = completed.values().stream().mapToLong(LongAdder::sum).sum();
+
+        return new LoadReport(config, measuredNanos, totalOperations, merged, errorCounts, stuckWorkers);
+    }
+}
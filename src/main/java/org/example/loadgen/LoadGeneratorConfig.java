@@ -0,0 +1,211 @@
+package org.example.loadgen;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings for a load generation run, parsed from --name=value command line options
+ */
+public record LoadGeneratorConfig(int threads,
+                                  boolean virtualThreads,
+                                  Duration duration,
+                                  Duration warmup,
+                                  int boxPoolSize,
+                                  long boxHoldMillis,
+                                  int initialAccounts,
+                                  Map<Operation, Integer> mix,
+                                  Path accountFile,
+                                  Path output,
+                                  String logLevel,
+                                  long seed) {
+
+    /**
+     * Operations the load generator can mix, keyed by the name used in --mix
+     */
+    public enum Operation {
+        BOX("box"),
+        CREATE("create"),
+        DEPOSIT("deposit"),
+        WITHDRAW("withdraw"),
+        TRANSFER("transfer"),
+        FEE("fee");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        static Operation fromKey(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation in --mix: " + key);
+        }
+    }
+
+    public LoadGeneratorConfig {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("--threads must be greater than 0");
+        }
+        if (duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("--duration must be greater than 0");
+        }
+        if (warmup.isNegative()) {
+            throw new IllegalArgumentException("--warmup must not be negative");
+        }
+        if (boxPoolSize <= 0) {
+            throw new IllegalArgumentException("--boxes must be greater than 0");
+        }
+        if (boxHoldMillis < 0) {
+            throw new IllegalArgumentException("--hold-millis must not be negative");
+        }
+        if (initialAccounts <= 0) {
+            throw new IllegalArgumentException("--accounts must be greater than 0");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("--mix must give at least one operation a positive weight");
+        }
+        String outputName = output.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (!outputName.endsWith(".csv") && !outputName.endsWith(".json")) {
+            throw new IllegalArgumentException("--output must end in .csv or .json");
+        }
+        mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+    }
+
+    /**
+     * @param args Options in --name=value form, see usage()
+     * @return The parsed settings, with defaults for missing options
+     */
+    public static LoadGeneratorConfig parse(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean virtualThreads = false;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(5);
+        int boxPoolSize = 16;
+        long boxHoldMillis = 1;
+        int initialAccounts = 10_000;
+        Map<Operation, Integer> mix = parseMix("box=1,create=1,deposit=4,withdraw=4,transfer=4,fee=1");
+        Path accountFile = null;
+        Path output = Path.of("loadgen-report.json");
+        String logLevel = "WARN";
+        long seed = System.nanoTime();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? null : arg.substring(separator + 1);
+
+            switch (name) {
+                case "threads" -> threads = parseInt(name, value);
+                case "virtual" -> virtualThreads = value == null || Boolean.parseBoolean(value);
+                case "thread-type" -> virtualThreads = switch (require(name, value)) {
+                    case "virtual" -> true;
+                    case "platform" -> false;
+                    default -> throw new IllegalArgumentException("--thread-type must be platform or virtual");
+                };
+                case "duration" -> duration = parseDuration(name, value);
+                case "warmup" -> warmup = parseDuration(name, value);
+                case "boxes" -> boxPoolSize = parseInt(name, value);
+                case "hold-millis" -> boxHoldMillis = parseLong(name, value);
+                case "accounts" -> initialAccounts = parseInt(name, value);
+                case "mix" -> mix = parseMix(require(name, value));
+                case "account-file" -> accountFile = Path.of(require(name, value));
+                case "output" -> output = Path.of(require(name, value));
+                case "log-level" -> logLevel = require(name, value);
+                case "seed" -> seed = parseLong(name, value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+
+        return new LoadGeneratorConfig(threads, virtualThreads, duration, warmup, boxPoolSize, boxHoldMillis,
+                initialAccounts, mix, accountFile, output, logLevel, seed);
+    }
+
+    public static String usage() {
+        return """
+                Usage: java org.example.Main [options]
+                  --threads=N            worker threads (default: number of cores)
+                  --thread-type=TYPE     platform or virtual (default: platform), --virtual is a shorthand
+                  --duration=TIME        measured run time, e.g. 30s, 500ms, 2m (default: 30s)
+                  --warmup=TIME          run time before measuring starts (default: 5s)
+                  --boxes=N              safety deposit box pool size (default: 16)
+                  --hold-millis=N        how long a box is held before release (default: 1)
+                  --accounts=N           accounts created before the run (default: 10000)
+                  --mix=OP=W,...         operation weights for box, create, deposit, withdraw, transfer, fee
+                                         (default: box=1,create=1,deposit=4,withdraw=4,transfer=4,fee=1)
+                  --account-file=PATH    account store file (default: a temporary file)
+                  --output=PATH          report file, .json or .csv (default: loadgen-report.json)
+                  --log-level=LEVEL      root log level during the run (default: WARN)
+                  --seed=N               random seed for the operation mix
+                """;
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("--mix entries must look like op=weight: " + entry);
+            }
+            int weight = parseInt("mix", parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("--mix weights must not be negative: " + entry);
+            }
+            mix.put(Operation.fromKey(parts[0].trim()), weight);
+        }
+        return mix;
+    }
+
+    private static Duration parseDuration(String name, String value) {
+        String text = require(name, value).trim().toLowerCase(Locale.ROOT);
+        try {
+            if (text.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+            } else if (text.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+            } else if (text.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+            }
+            return Duration.ofSeconds(Long.parseLong(text));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a time such as 30s, 500ms or 2m", e);
+        }
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(require(name, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a whole number", e);
+        }
+    }
+
+    private static long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(require(name, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a whole number", e);
+        }
+    }
+
+    private static String require(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("--" + name + " needs a value");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.loadgen;
+
+import org.example.loadgen.LoadGeneratorConfig.Operation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Throughput and latency percentiles of a load generation run, written as JSON or CSV
+ * Latencies are reported in microseconds
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9", "p99.99"};
+
+    private final LoadGeneratorConfig config;
+    private final long measuredNanos;
+    private final long totalOperations;
+    private final Map<String, LatencyHistogram> histograms;
+    private final Map<String, Long> errors;
+    private final List<String> stuckWorkers;
+
+    public LoadReport(LoadGeneratorConfig config, long measuredNanos, long totalOperations,
+                      Map<String, LatencyHistogram> histograms, Map<String, Long> errors,
+                      List<String> stuckWorkers) {
+        this.config = config;
+        this.measuredNanos = measuredNanos;
+        this.totalOperations = totalOperations;
+        this.histograms = histograms;
+        this.errors = errors;
+        this.stuckWorkers = List.copyOf(stuckWorkers);
+    }
+
+    public long getTotalOperations() {
+        return totalOperations;
+    }
+
+    public double getThroughput() {
+        return perSecond(totalOperations);
+    }
+
+    public LatencyHistogram getHistogram(String metric) {
+        return histograms.get(metric);
+    }
+
+    /**
+     * @return Names of the workers that had not stopped by the end of the run
+     */
+    public List<String> getStuckWorkers() {
+        return stuckWorkers;
+    }
+
+    /**
+     * Writes the report, as CSV if the file name ends in .csv and as JSON otherwise
+     * @param file Target file
+     */
+    public void write(Path file) {
+        String content = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? toCsv() : toJson();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write load report to " + file, e);
+        }
+    }
+
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%d %s threads, %.1fs measured, %d operations, %.1f ops/s%n",
+                config.threads(), threadType(), seconds(), totalOperations, getThroughput());
+        if (!stuckWorkers.isEmpty()) {
+            out.printf(Locale.ROOT, "%d workers did not stop: %s%n", stuckWorkers.size(), stuckWorkers);
+        }
+        out.printf(Locale.ROOT, "%-18s %10s %7s %12s %10s %10s %10s %10s %10s %10s%n",
+                "metric", "count", "errors", "ops/s", "mean us", "p50 us", "p99 us", "p99.9 us", "p99.99 us", "max us");
+        histograms.forEach((metric, histogram) -> out.printf(Locale.ROOT,
+                "%-18s %10d %7d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                metric, histogram.getCount(), errors.getOrDefault(metric, 0L), perSecond(histogram.getCount()),
+                histogram.getMean() / 1_000, micros(histogram.getValueAtPercentile(50)),
+                micros(histogram.getValueAtPercentile(99)), micros(histogram.getValueAtPercentile(99.9)),
+                micros(histogram.getValueAtPercentile(99.99)), micros(histogram.getMax())));
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"threads\": ").append(config.threads()).append(",\n");
+        json.append("  \"threadType\": \"").append(threadType()).append("\",\n");
+        json.append("  \"measuredSeconds\": ").append(format(seconds())).append(",\n");
+        json.append("  \"warmupSeconds\": ").append(format(config.warmup().toMillis() / 1_000.0)).append(",\n");
+        json.append("  \"boxPoolSize\": ").append(config.boxPoolSize()).append(",\n");
+        json.append("  \"boxHoldMillis\": ").append(config.boxHoldMillis()).append(",\n");
+        json.append("  \"initialAccounts\": ").append(config.initialAccounts()).append(",\n");
+        json.append("  \"seed\": ").append(config.seed()).append(",\n");
+
+        StringJoiner mix = new StringJoiner(", ", "{", "}");
+        for (Operation operation : Operation.values()) {
+            mix.add("\"" + operation.key() + "\": " + config.mix().getOrDefault(operation, 0));
+        }
+        json.append("  \"mix\": ").append(mix).append(",\n");
+        json.append("  \"totalOperations\": ").append(totalOperations).append(",\n");
+        json.append("  \"throughputOpsPerSecond\": ").append(format(getThroughput())).append(",\n");
+        json.append("  \"stuckWorkers\": ").append(stuckWorkers.size()).append(",\n");
+
+        StringJoiner metrics = new StringJoiner(",\n", "[\n", "\n  ]");
+        histograms.forEach((metric, histogram) -> {
+            StringBuilder entry = new StringBuilder();
+            entry.append("    {\"name\": \"").append(metric).append("\"");
+            entry.append(", \"count\": ").append(histogram.getCount());
+            entry.append(", \"errors\": ").append(errors.getOrDefault(metric, 0L));
+            entry.append(", \"throughputOpsPerSecond\": ").append(format(perSecond(histogram.getCount())));
+            entry.append(", \"latencyMicros\": {");
+            entry.append("\"min\": ").append(format(micros(histogram.getMin())));
+            entry.append(", \"mean\": ").append(format(histogram.getMean() / 1_000));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                entry.append(", \"").append(PERCENTILE_LABELS[i]).append("\": ")
+                        .append(format(micros(histogram.getValueAtPercentile(PERCENTILES[i]))));
+            }
+            entry.append(", \"max\": ").append(format(micros(histogram.getMax())));
+            entry.append("}}");
+            metrics.add(entry);
+        });
+        json.append("  \"metrics\": ").append(metrics).append("\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder();
+        csv.append("metric,count,errors,ops_per_sec,min_us,mean_us");
+        for (String label : PERCENTILE_LABELS) {
+            csv.append(',').append(label.replace(".", "")).append("_us");
+        }
+        csv.append(",max_us\n");
+
+        histograms.forEach((metric, histogram) -> {
+            csv.append(metric).append(',')
+                    .append(histogram.getCount()).append(',')
+                    .append(errors.getOrDefault(metric, 0L)).append(',')
+                    .append(format(perSecond(histogram.getCount()))).append(',')
+                    .append(format(micros(histogram.getMin()))).append(',')
+                    .append(format(histogram.getMean() / 1_000));
+            for (double percentile : PERCENTILES) {
+                csv.append(',').append(format(micros(histogram.getValueAtPercentile(percentile))));
+            }
+            csv.append(',').append(format(micros(histogram.getMax()))).append('\n');
+        });
+
+        csv.append("total,").append(totalOperations).append(",,").append(format(getThroughput()));
+        csv.append(",".repeat(PERCENTILES.length + 3)).append('\n');
+        return csv.toString();
+    }
+
+    private String threadType() {
+        return config.virtualThreads() ? "virtual" : "platform";
+    }
+
+    private double seconds() {
+        return measuredNanos / 1_000_000_000.0;
+    }
+
+    private double perSecond(long count) {
+        return measuredNanos == 0 ? 0 : count / seconds();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
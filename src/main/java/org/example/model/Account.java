@@ -3,34 +3,92 @@ package org.example.model;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
 public abstract class Account {
 
     private static final Logger logger = LogManager.getLogger(SafetyDepositBox.class);
 
-    private static long nextAccountId = 1_000;
+    private static final AtomicLong nextAccountId = new AtomicLong(1_000);
 
     private final long ACCOUNT_ID;
 
-    protected double balance = 0;
+    protected volatile double balance = 0;
+
+    private final List<BalanceChangeListener> balanceListeners = new CopyOnWriteArrayList<>();
 
     public Account() {
-        this.ACCOUNT_ID = nextAccountId;
-        logger.debug("Created Account with ID: {}", nextAccountId);
-        nextAccountId += 5; // Increment by 5 for every new account
+        this.ACCOUNT_ID = nextAccountId.getAndAdd(5); // Increment by 5 for every new account
+        logger.debug("Created Account with ID: {}", ACCOUNT_ID);
+    }
+
+    /**
+     * Restores an account that already has an ID, e.g. when loading it from storage
+     * Accounts created afterwards will not be given the restored ID, even when several threads
+     * restore accounts at once, since the ID counter is only ever moved forward atomically
+     *
+     * @param accountId Existing account ID
+     * @param balance Stored balance
+     */
+    protected Account(long accountId, double balance) {
+        this.ACCOUNT_ID = accountId;
+        this.balance = balance;
+        nextAccountId.accumulateAndGet(accountId + 5, Math::max);
+        logger.debug("Restored Account with ID: {}", accountId);
     }
 
-    public double withdraw(double amount) {
+    // Balance updates are synchronized so concurrent deposits and withdrawals are never lost
+    public synchronized double withdraw(double amount) {
+        double previous = this.balance;
         this.balance -= amount;
         logger.info("Original balance is ${}, after withdrawing it became ${}", getBalance(), getBalance() - amount);
+        notifyBalanceChanged(BalanceChangeType.WITHDRAWAL, amount, previous);
         return amount;
     }
 
-    public void deposit(double amount) {
+    public synchronized void deposit(double amount) {
+        double previous = this.balance;
         this.balance += amount;
+        notifyBalanceChanged(BalanceChangeType.DEPOSIT, amount, previous);
     }
 
-    public void correctBalance(double amount) {
+    public synchronized void chargeFee(double fee) {
+        double previous = this.balance;
+        this.balance -= fee;
+        logger.debug("Charged fee of ${} to account ID {}", fee, ACCOUNT_ID);
+        notifyBalanceChanged(BalanceChangeType.FEE, fee, previous);
+    }
+
+    public synchronized void correctBalance(double amount) {
+        double previous = this.balance;
         this.balance = amount;
+        notifyBalanceChanged(BalanceChangeType.CORRECTION, amount, previous);
+    }
+
+    /**
+     * Withdraws the amount only if the balance covers it, as one atomic step
+     * @param amount Amount to withdraw
+     * @return true if the amount was withdrawn, false if the balance was too low
+     */
+    public synchronized boolean withdrawIfSufficient(double amount) {
+        if (balance < amount) {
+            return false;
+        }
+        // Debits directly rather than through withdraw() to keep logging off this hot path
+        double previous = this.balance;
+        this.balance -= amount;
+        notifyBalanceChanged(BalanceChangeType.WITHDRAWAL, amount, previous);
+        return true;
+    }
+
+    public void addBalanceChangeListener(BalanceChangeListener listener) {
+        balanceListeners.add(listener);
+    }
+
+    public void removeBalanceChangeListener(BalanceChangeListener listener) {
+        balanceListeners.remove(listener);
     }
 
     public long getACCOUNT_ID() {
@@ -40,4 +98,11 @@ public abstract class Account {
     public double getBalance() {
         return balance;
     }
+
+    private void notifyBalanceChanged(BalanceChangeType type, double amount, double previousBalance) {
+        double newBalance = this.balance;
+        for (BalanceChangeListener listener : balanceListeners) {
+            listener.balanceChanged(this, type, amount, previousBalance, newBalance);
+        }
+    }
 }
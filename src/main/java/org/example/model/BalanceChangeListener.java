@@ -0,0 +1,17 @@
+package org.example.model;
+
+/**
+ * Notified after an account's balance changes through deposit, withdraw, chargeFee or correctBalance
+ * Calls for one account arrive in the order the changes were applied
+ */
+public interface BalanceChangeListener {
+    /**
+     * @param account The account whose balance changed
+     * @param type What caused the change
+     * @param amount Amount deposited, withdrawn or charged, or the new balance for a correction
+     * @param previousBalance Balance before the change
+     * @param newBalance Balance after the change
+     */
+    public void balanceChanged(Account account, BalanceChangeType type, double amount,
+                               double previousBalance, double newBalance);
+}
@@ -0,0 +1,9 @@
+package org.example.model;
+
+// Persisted by ordinal in the account ledger, only ever append new types at the end
+public enum BalanceChangeType {
+    DEPOSIT,
+    WITHDRAWAL,
+    FEE,
+    CORRECTION
+}
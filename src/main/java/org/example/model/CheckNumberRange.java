@@ -0,0 +1,20 @@
+package org.example.model;
+
+/**
+ * Contiguous block of check numbers reserved in one go
+ * @param first First check number in the block
+ * @param count Number of check numbers in the block
+ */
+public record CheckNumberRange(int first, int count) {
+
+    /**
+     * @return Last check number in the block
+     */
+    public int last() {
+        return first + count - 1;
+    }
+
+    public boolean contains(int checkNumber) {
+        return checkNumber >= first && checkNumber <= last();
+    }
+}
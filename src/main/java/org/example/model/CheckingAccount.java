@@ -1,25 +1,53 @@
 package org.example.model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class CheckingAccount extends Account {
 
-    private int nextCheckNumber = 1;
+    private final AtomicInteger nextCheckNumber = new AtomicInteger(1);
 
     public CheckingAccount() {
         super();
     }
 
+    public CheckingAccount(long accountId, double balance, int nextCheckNumber) {
+        super(accountId, balance);
+        this.nextCheckNumber.set(nextCheckNumber);
+    }
+
+    // Lock-free, concurrent callers always get distinct numbers
     public int getNextCheckNumber() {
-        int current = nextCheckNumber;
-        nextCheckNumber++;   // Increment for the next check
-        return current;
+        return nextCheckNumber.getAndIncrement();   // Increment for the next check
+    }
+
+    /**
+     * Atomically reserves a contiguous block of check numbers, e.g. for a bulk printing run
+     * The next check issued after the block is last() + 1
+     *
+     * @param count Number of check numbers to reserve
+     * @return The reserved block
+     */
+    public CheckNumberRange reserveCheckNumbers(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of check numbers must be greater than 0");
+        }
+        while (true) {
+            int first = nextCheckNumber.get();
+            if (first > Integer.MAX_VALUE - count) {
+                throw new IllegalStateException("Not enough check numbers left to reserve " + count);
+            }
+            if (nextCheckNumber.compareAndSet(first, first + count)) {
+                return new CheckNumberRange(first, count);
+            }
+        }
     }
 
     public void setNextCheckNumber(int nextCheckNumber) {
-        this.nextCheckNumber = nextCheckNumber;
+        this.nextCheckNumber.set(nextCheckNumber);
     }
 
     // Custom method to return check number without incrementing it
     public int peekNextCheckNumber() {
-        return nextCheckNumber;
+        return nextCheckNumber.get();
     }
 }
@@ -0,0 +1,10 @@
+package org.example.model;
+
+/**
+ * A request to move money from one account to another
+ * @param fromAccountId Account to debit
+ * @param toAccountId Account to credit
+ * @param amount Amount to move, must be positive
+ */
+public record TransferRequest(long fromAccountId, long toAccountId, double amount) {
+}
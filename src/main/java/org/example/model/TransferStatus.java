@@ -0,0 +1,9 @@
+package org.example.model;
+
+public enum TransferStatus {
+    COMPLETED,
+    INSUFFICIENT_FUNDS,
+    ACCOUNT_NOT_FOUND,
+    SAME_ACCOUNT,
+    INVALID_AMOUNT
+}
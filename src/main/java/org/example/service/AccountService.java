@@ -2,10 +2,19 @@ package org.example.service;
 
 import org.example.model.Account;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AccountService {
     public List<Account> getAccounts();
+    public Optional<Account> findById(long accountId);
+    public List<Account> findByIds(long[] accountIds);
+    public List<Account> findByBalanceRange(double minExclusive, double maxInclusive);
+    public int countByBalanceRange(double minExclusive, double maxInclusive);
+    public int[] countByBalanceBands(double[] upperBounds);
     public Account createAccount(Account account);
+    public List<Account> createAccounts(Collection<? extends Account> accounts);
     public void removeAccount(Account account);
+    public void removeAccounts(Collection<? extends Account> accounts);
 }
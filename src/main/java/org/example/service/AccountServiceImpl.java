@@ -2,15 +2,31 @@ package org.example.service;
 
 import org.example.dao.AccountReaderDao;
 import org.example.dao.AccountWriterDao;
+import org.example.index.BalanceRangeIndex;
+import org.example.index.LongAccountIndex;
 import org.example.model.Account;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class AccountServiceImpl implements AccountService {
 
     private final AccountReaderDao accReaderDao;
     private final AccountWriterDao accWriterDao;
 
+    // ID and balance indexes, built from the reader DAO on the first lookup and kept in sync by create/remove
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private LongAccountIndex accountIndex;
+    private BalanceRangeIndex balanceIndex;
+    // Accounts created through this service before the indexes exist, so lookups return these instances
+    // rather than the copies a reader DAO may hand out, and so writes still buffered by the DAO are found
+    private final Map<Long, Account> createdBeforeIndex = new LinkedHashMap<>();
+
     public AccountServiceImpl(AccountReaderDao accReaderDao, AccountWriterDao accWriterDao) {
         this.accReaderDao = accReaderDao;
         this.accWriterDao = accWriterDao;
@@ -21,13 +37,147 @@ public class AccountServiceImpl implements AccountService {
         return accReaderDao.readAccounts();
     }
 
+    @Override
+    public Optional<Account> findById(long accountId) {
+        LongAccountIndex index = ensureIndex();
+        indexLock.readLock().lock();
+        try {
+            return Optional.ofNullable(index.get(accountId));
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up several accounts by ID in one pass
+     * @param accountIds The account IDs
+     * @return The accounts found, in the order of the given IDs, unknown IDs are skipped
+     */
+    @Override
+    public List<Account> findByIds(long[] accountIds) {
+        LongAccountIndex index = ensureIndex();
+        List<Account> accounts = new ArrayList<>(accountIds.length);
+        indexLock.readLock().lock();
+        try {
+            for (long accountId : accountIds) {
+                Account account = index.get(accountId);
+                if (account != null) {
+                    accounts.add(account);
+                }
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        return accounts;
+    }
+
+    @Override
+    public List<Account> findByBalanceRange(double minExclusive, double maxInclusive) {
+        ensureIndex();
+        return balanceIndex.findBetween(minExclusive, false, maxInclusive, true);
+    }
+
+    @Override
+    public int countByBalanceRange(double minExclusive, double maxInclusive) {
+        ensureIndex();
+        return balanceIndex.countBetween(minExclusive, false, maxInclusive, true);
+    }
+
+    /**
+     * Counts accounts per balance band, e.g. with FeeCalculatorService.getFeeBandUpperBounds()
+     * @param upperBounds Ascending band upper bounds, bands are (-inf, b0], (b0, b1], ..., (bn, +inf)
+     * @return One count per band, upperBounds.length + 1 in total
+     */
+    @Override
+    public int[] countByBalanceBands(double[] upperBounds) {
+        ensureIndex();
+        return balanceIndex.countPerBand(upperBounds);
+    }
+
     @Override
     public Account createAccount(Account account) {
-        return accWriterDao.createAccount(account);
+        Account created = accWriterDao.createAccount(account);
+        updateIndexes(() -> indexAccount(created));
+        return created;
+    }
+
+    @Override
+    public List<Account> createAccounts(Collection<? extends Account> accounts) {
+        List<Account> created = accWriterDao.createAccounts(accounts);
+        updateIndexes(() -> created.forEach(this::indexAccount));
+        return created;
     }
 
     @Override
     public void removeAccount(Account account) {
         accWriterDao.deleteAccount(account);
+        updateIndexes(() -> unindexAccount(account.getACCOUNT_ID()));
+    }
+
+    @Override
+    public void removeAccounts(Collection<? extends Account> accounts) {
+        accWriterDao.deleteAccounts(accounts);
+        updateIndexes(() -> accounts.forEach(account -> unindexAccount(account.getACCOUNT_ID())));
+    }
+
+    private LongAccountIndex ensureIndex() {
+        indexLock.readLock().lock();
+        try {
+            if (accountIndex != null) {
+                return accountIndex;
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
+
+        indexLock.writeLock().lock();
+        try {
+            if (accountIndex == null) {
+                List<Account> accounts = accReaderDao.readAccounts();
+                accountIndex = new LongAccountIndex(accounts.size());
+                balanceIndex = new BalanceRangeIndex();
+                for (Account stored : accounts) {
+                    Account created = createdBeforeIndex.remove(stored.getACCOUNT_ID());
+                    indexAccount(created != null ? created : stored);
+                }
+                createdBeforeIndex.values().forEach(this::indexAccount);
+                createdBeforeIndex.clear();
+            }
+            return accountIndex;
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    private void updateIndexes(Runnable update) {
+        indexLock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    // Must be called with the index write lock held
+    private void indexAccount(Account account) {
+        if (accountIndex == null) {
+            createdBeforeIndex.put(account.getACCOUNT_ID(), account);
+            return;
+        }
+        accountIndex.put(account);
+        // Replaces any account already indexed under the same ID
+        balanceIndex.add(account);
+    }
+
+    // Must be called with the index write lock held
+    private void unindexAccount(long accountId) {
+        if (accountIndex == null) {
+            createdBeforeIndex.remove(accountId);
+            return;
+        }
+        Account removed = accountIndex.remove(accountId);
+        if (removed != null) {
+            balanceIndex.remove(removed);
+        }
     }
 }
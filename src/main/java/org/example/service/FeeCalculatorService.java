@@ -2,4 +2,11 @@ package org.example.service;
 
 public interface FeeCalculatorService {
     double calculateFee(double balance);
+
+    /**
+     * Gets the balance thresholds the fee changes at, in ascending order
+     * A balance belongs to the first band whose upper bound it does not exceed
+     * @return Band upper bounds
+     */
+    double[] getFeeBandUpperBounds();
 }
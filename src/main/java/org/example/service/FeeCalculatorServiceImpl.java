@@ -1,6 +1,9 @@
 package org.example.service;
 
 public class FeeCalculatorServiceImpl implements FeeCalculatorService {
+
+    private static final double[] FEE_BAND_UPPER_BOUNDS = {100, 500, 1000, 2000};
+
     @Override
     public double calculateFee(double balance) {
         if (balance <= 100) {
@@ -15,4 +18,9 @@ public class FeeCalculatorServiceImpl implements FeeCalculatorService {
             return 0.0;
         }
     }
+
+    @Override
+    public double[] getFeeBandUpperBounds() {
+        return FEE_BAND_UPPER_BOUNDS.clone();
+    }
 }
@@ -9,6 +9,8 @@ import org.example.model.SmallSafetyDepositBox;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class SafetyDepositBoxService {
 
@@ -26,6 +28,11 @@ public class SafetyDepositBoxService {
     // Counter for generating unique box IDs
     private int boxIdCounter = 0;
 
+    // Guards the pool, a lock rather than the monitor so virtual threads waiting for a box
+    // unmount instead of pinning their carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition boxReleased = lock.newCondition();
+
     private SafetyDepositBoxService() {
         this.safetyDepositBoxes = new ArrayList<>();
         logger.info("SafetyDepositBoxService instance created");
@@ -71,7 +78,7 @@ public class SafetyDepositBoxService {
 
     /**
      * Allocates a safety deposit box to a client
-     * This method is synchronized to ensure thread safety
+     * This method is guarded by the pool lock to ensure thread safety
      *
      * Behavior:
      * 1. If a box is available in the pool, return it
@@ -80,10 +87,19 @@ public class SafetyDepositBoxService {
      *
      * @return An allocated SafetyDepositBox
      */
-    public synchronized SafetyDepositBox allocateSafetyDepositBox() {
+    public SafetyDepositBox allocateSafetyDepositBox() {
         logger.info("Thread {} requesting safety deposit box allocation",
                 Thread.currentThread().getName());
 
+        lock.lock();
+        try {
+            return allocateWhileLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SafetyDepositBox allocateWhileLocked() {
         SafetyDepositBox box = null;
 
         // Try to get a released (available) box from the pool
@@ -112,7 +128,7 @@ public class SafetyDepositBoxService {
                 isWaiting = true;
                 while (getReleasedSafetyDepositBox().isEmpty()) {
                     logger.debug("Thread {} entering wait state", Thread.currentThread().getName());
-                    wait(); // Wait until notified by releaseSafetyDepositBox
+                    boxReleased.await(); // Wait until signalled by releaseSafetyDepositBox
                     logger.debug("Thread {} woke up from wait state", Thread.currentThread().getName());
                 }
                 isWaiting = false;
@@ -130,6 +146,8 @@ public class SafetyDepositBoxService {
                 }
             } catch (InterruptedException e) {
                 isWaiting = false;
+                // Pass on a signal this thread may have consumed so the box goes to another waiter
+                boxReleased.signal();
                 logger.error("Thread {} interrupted while waiting for safety deposit box",
                         Thread.currentThread().getName(), e);
                 Thread.currentThread().interrupt();
@@ -152,7 +170,7 @@ public class SafetyDepositBoxService {
      *
      * @param box The box to release
      */
-    public synchronized void releaseSafetyDepositBox(SafetyDepositBox box) {
+    public void releaseSafetyDepositBox(SafetyDepositBox box) {
         if (box == null) {
             logger.warn("Attempted to release null safety deposit box");
             return;
@@ -161,60 +179,81 @@ public class SafetyDepositBoxService {
         logger.info("Thread {} releasing box ID {}",
                 Thread.currentThread().getName(), box.getId());
 
-        box.setAllotted(false);
-
-        // Notify all waiting threads that a box has been released
-        notifyAll();
-        logger.debug("Notified all waiting threads that box ID {} is now available", box.getId());
-
-        logger.info("Box ID {} released. Available boxes: {}/{}",
-                box.getId(),
-                getNumberOfAvailableSafetyDepositBoxes(),
-                safetyDepositBoxes.size());
+        lock.lock();
+        try {
+            box.setAllotted(false);
+
+            // One box was released so one waiting thread is enough, waking all of them only
+            // makes the rest contend for the lock and go back to waiting
+            boxReleased.signal();
+            logger.debug("Notified a waiting thread that box ID {} is now available", box.getId());
+
+            logger.info("Box ID {} released. Available boxes: {}/{}",
+                    box.getId(),
+                    getNumberOfAvailableSafetyDepositBoxes(),
+                    safetyDepositBoxes.size());
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Gets the number of available (not allotted) safety deposit boxes
-     * This method is synchronized to ensure thread safety
+     * This method is guarded by the pool lock to ensure thread safety
      *
      * @return Number of available boxes
      */
-    public synchronized int getNumberOfAvailableSafetyDepositBoxes() {
-        int count = 0;
-        for (SafetyDepositBox box : safetyDepositBoxes) {
-            if (!box.isAllotted()) {
-                count++;
+    public int getNumberOfAvailableSafetyDepositBoxes() {
+        lock.lock();
+        try {
+            int count = 0;
+            for (SafetyDepositBox box : safetyDepositBoxes) {
+                if (!box.isAllotted()) {
+                    count++;
+                }
             }
+            logger.debug("Current available boxes count: {}", count);
+            return count;
+        } finally {
+            lock.unlock();
         }
-        logger.debug("Current available boxes count: {}", count);
-        return count;
     }
 
     /**
      * Searches for and returns the first available (not allotted) safety deposit box
-     * This method is synchronized to ensure thread safety
+     * This method is guarded by the pool lock to ensure thread safety
      *
      * @return Optional containing the first available box, or empty if none available
      */
-    public synchronized Optional<SafetyDepositBox> getReleasedSafetyDepositBox() {
-        for (SafetyDepositBox box : safetyDepositBoxes) {
-            if (!box.isAllotted()) {
-                logger.debug("Found available box ID {}", box.getId());
-                return Optional.of(box);
+    public Optional<SafetyDepositBox> getReleasedSafetyDepositBox() {
+        lock.lock();
+        try {
+            for (SafetyDepositBox box : safetyDepositBoxes) {
+                if (!box.isAllotted()) {
+                    logger.debug("Found available box ID {}", box.getId());
+                    return Optional.of(box);
+                }
             }
+            logger.debug("No available boxes found in pool");
+            return Optional.empty();
+        } finally {
+            lock.unlock();
         }
-        logger.debug("No available boxes found in pool");
-        return Optional.empty();
     }
 
     /**
      * Gets the list of all safety deposit boxes in the pool
      * @return List of safety deposit boxes
      */
-    public synchronized List<SafetyDepositBox> getSafetyDepositBoxes() {
-        logger.debug("Retrieved list of all safety deposit boxes. Total count: {}",
-                safetyDepositBoxes.size());
-        return new ArrayList<>(safetyDepositBoxes);
+    public List<SafetyDepositBox> getSafetyDepositBoxes() {
+        lock.lock();
+        try {
+            logger.debug("Retrieved list of all safety deposit boxes. Total count: {}",
+                    safetyDepositBoxes.size());
+            return new ArrayList<>(safetyDepositBoxes);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -229,7 +268,7 @@ public class SafetyDepositBoxService {
         return new SmallSafetyDepositBox(boxIdCounter);
     }
 
-    public synchronized boolean isWaiting() {
+    public boolean isWaiting() {
         return isWaiting;
     }
 }
@@ -0,0 +1,11 @@
+package org.example.service;
+
+import org.example.model.TransferRequest;
+import org.example.model.TransferStatus;
+
+import java.util.List;
+
+public interface TransferService {
+    public TransferStatus transfer(long fromAccountId, long toAccountId, double amount);
+    public List<TransferStatus> transferAll(List<TransferRequest> transfers);
+}
@@ -0,0 +1,132 @@
+package org.example.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.example.model.Account;
+import org.example.model.TransferRequest;
+import org.example.model.TransferStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves money between accounts looked up through the AccountService
+ *
+ * Behavior:
+ * 1. Each account ID maps onto one of a fixed set of lock stripes
+ * 2. A transfer holds the stripes of both accounts, always taken in ascending stripe order,
+ *    so two transfers in opposite directions can never deadlock
+ * 3. The debit only happens if the balance covers it, otherwise nothing is moved
+ * 4. Transfers touching different stripes share no lock here, and the balance index only marks the
+ *    changed accounts, so they run in parallel unless a listener such as the AccountLedger serializes them
+ */
+public class TransferServiceImpl implements TransferService {
+
+    private static final Logger logger = LogManager.getLogger(TransferServiceImpl.class);
+
+    private static final int DEFAULT_STRIPES = 1024;
+
+    private final AccountService accountService;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    public TransferServiceImpl(AccountService accountService) {
+        this(accountService, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param accountService Service the accounts are looked up in
+     * @param stripeCount Number of lock stripes, rounded up to a power of two
+     */
+    public TransferServiceImpl(AccountService accountService, int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Number of lock stripes must be greater than 0");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+
+        this.accountService = accountService;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    @Override
+    public TransferStatus transfer(long fromAccountId, long toAccountId, double amount) {
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            logger.warn("Rejected transfer of invalid amount {} from account ID {} to {}",
+                    amount, fromAccountId, toAccountId);
+            return TransferStatus.INVALID_AMOUNT;
+        }
+        if (fromAccountId == toAccountId) {
+            logger.warn("Rejected transfer from account ID {} to itself", fromAccountId);
+            return TransferStatus.SAME_ACCOUNT;
+        }
+
+        Optional<Account> from = accountService.findById(fromAccountId);
+        Optional<Account> to = accountService.findById(toAccountId);
+        if (from.isEmpty() || to.isEmpty()) {
+            logger.warn("Rejected transfer from account ID {} to {} - account not found",
+                    fromAccountId, toAccountId);
+            return TransferStatus.ACCOUNT_NOT_FOUND;
+        }
+
+        int fromStripe = stripeFor(fromAccountId);
+        int toStripe = stripeFor(toAccountId);
+        ReentrantLock first = stripes[Math.min(fromStripe, toStripe)];
+        ReentrantLock second = stripes[Math.max(fromStripe, toStripe)];
+
+        boolean debited;
+        first.lock();
+        try {
+            // Both IDs can share a stripe, ReentrantLock makes the second lock a no-op then
+            second.lock();
+            try {
+                debited = from.get().withdrawIfSufficient(amount);
+                if (debited) {
+                    to.get().deposit(amount);
+                }
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+
+        // Logged after the locks are released, completed transfers are not logged at all
+        if (!debited) {
+            logger.debug("Rejected transfer of ${} from account ID {} - insufficient funds",
+                    amount, fromAccountId);
+            return TransferStatus.INSUFFICIENT_FUNDS;
+        }
+        return TransferStatus.COMPLETED;
+    }
+
+    /**
+     * Applies the transfers in order, each one atomically
+     * A rejected transfer does not stop the rest of the batch
+     *
+     * @param transfers Transfers to apply
+     * @return One status per transfer, in the same order
+     */
+    @Override
+    public List<TransferStatus> transferAll(List<TransferRequest> transfers) {
+        List<TransferStatus> results = new ArrayList<>(transfers.size());
+        for (TransferRequest request : transfers) {
+            results.add(transfer(request.fromAccountId(), request.toAccountId(), request.amount()));
+        }
+        return results;
+    }
+
+    private int stripeFor(long accountId) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & stripeMask;
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.dao;
+
+import org.example.model.Account;
+import org.example.model.CheckingAccount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileAccountDaoTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private MappedFileAccountDao dao;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("accounts.dat");
+        dao = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dao.close();
+    }
+
+    @Test
+    void testCreatedAccountsAreReadBack() {
+        CheckingAccount account = new CheckingAccount();
+        account.deposit(250.0);
+        account.setNextCheckNumber(42);
+
+        dao.createAccount(account);
+
+        List<Account> accounts = dao.readAccounts();
+        assertEquals(1, accounts.size());
+        CheckingAccount read = (CheckingAccount) accounts.get(0);
+        assertEquals(account.getACCOUNT_ID(), read.getACCOUNT_ID());
+        assertEquals(250.0, read.getBalance());
+        assertEquals(42, read.peekNextCheckNumber());
+    }
+
+    @Test
+    void testAccountsSurviveReopen() {
+        CheckingAccount account = new CheckingAccount();
+        account.deposit(99.5);
+        dao.createAccounts(List.of(account, new CheckingAccount()));
+
+        dao.close();
+        dao = open();
+
+        List<Account> accounts = dao.readAccounts();
+        assertEquals(2, accounts.size());
+        assertEquals(account.getACCOUNT_ID(), accounts.get(0).getACCOUNT_ID());
+        assertEquals(99.5, accounts.get(0).getBalance());
+    }
+
+    @Test
+    void testCreatingExistingAccountOverwritesRecord() {
+        CheckingAccount account = new CheckingAccount();
+        dao.createAccount(account);
+
+        account.deposit(10.0);
+        dao.createAccount(account);
+
+        List<Account> accounts = dao.readAccounts();
+        assertEquals(1, accounts.size());
+        assertEquals(10.0, accounts.get(0).getBalance());
+    }
+
+    @Test
+    void testOverwriteAppendsNewCopyAndTombstonesOldOne() {
+        CheckingAccount account = new CheckingAccount();
+        CheckingAccount other = new CheckingAccount();
+        dao.createAccounts(List.of(account, other));
+
+        account.deposit(75.0);
+        account.setNextCheckNumber(9);
+        dao.createAccount(account);
+
+        assertEquals(1, dao.getTombstoneCount(), "The old copy should be tombstoned, not rewritten in place");
+        dao.close();
+        dao = open();
+
+        assertEquals(1, dao.getTombstoneCount());
+        List<Account> accounts = dao.readAccounts();
+        assertEquals(2, accounts.size());
+        CheckingAccount read = (CheckingAccount) accounts.stream()
+                .filter(a -> a.getACCOUNT_ID() == account.getACCOUNT_ID()).findFirst().orElseThrow();
+        assertEquals(75.0, read.getBalance());
+        assertEquals(9, read.peekNextCheckNumber());
+    }
+
+    @Test
+    void testDeletedAccountsAreTombstoned() {
+        CheckingAccount kept = new CheckingAccount();
+        CheckingAccount deleted = new CheckingAccount();
+        dao.createAccounts(List.of(kept, deleted));
+
+        dao.deleteAccount(deleted);
+
+        assertEquals(1, dao.getTombstoneCount());
+        List<Account> accounts = dao.readAccounts();
+        assertEquals(1, accounts.size());
+        assertEquals(kept.getACCOUNT_ID(), accounts.get(0).getACCOUNT_ID());
+    }
+
+    @Test
+    void testCompactionReclaimsTombstonedSlots() throws IOException {
+        List<CheckingAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            accounts.add(new CheckingAccount());
+        }
+        dao.createAccounts(accounts);
+        dao.deleteAccounts(accounts.subList(0, 5));
+
+        dao.compact();
+
+        assertEquals(0, dao.getTombstoneCount());
+        List<Account> remaining = dao.readAccounts();
+        assertEquals(5, remaining.size());
+        assertEquals(accounts.get(5).getACCOUNT_ID(), remaining.get(0).getACCOUNT_ID());
+
+        // The compacted file only holds the live records, new ones are appended after them
+        assertEquals(8L * MappedFileAccountDao.RECORD_SIZE, Files.size(file), "One segment of 8 records");
+        dao.createAccounts(accounts.subList(0, 5));
+        assertEquals(10, dao.readAccounts().size());
+
+        // Deleting a compacted account still finds its new slot
+        dao.deleteAccount(accounts.get(9));
+        assertEquals(9, dao.readAccounts().size());
+    }
+
+    @Test
+    void testCompactionAcrossSegmentsSurvivesReopen() throws IOException {
+        List<CheckingAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            CheckingAccount account = new CheckingAccount();
+            account.deposit(i);
+            accounts.add(account);
+        }
+        dao.createAccounts(accounts);
+        long sizeBefore = Files.size(file);
+
+        // Empties most of the first segments so records from the later ones move down
+        List<CheckingAccount> deleted = new ArrayList<>();
+        List<CheckingAccount> kept = new ArrayList<>();
+        for (int i = 0; i < accounts.size(); i++) {
+            if (i < 20 && i % 4 != 0) {
+                deleted.add(accounts.get(i));
+            } else {
+                kept.add(accounts.get(i));
+            }
+        }
+        dao.deleteAccounts(deleted);
+
+        dao.compact();
+
+        assertEquals(0, dao.getTombstoneCount());
+        assertTrue(Files.size(file) < sizeBefore, "Compaction should shrink the file");
+        assertFalse(Files.exists(tempDir.resolve("accounts.dat.compact")));
+        assertEquals(kept.stream().map(Account::getACCOUNT_ID).toList(),
+                dao.readAccounts().stream().map(Account::getACCOUNT_ID).toList());
+
+        // Updates and deletes after compaction find the records at their new slots
+        kept.get(kept.size() - 1).deposit(1_000);
+        dao.createAccount(kept.get(kept.size() - 1));
+        dao.deleteAccount(kept.get(0));
+        dao.close();
+        dao = open();
+
+        List<Account> reopened = dao.readAccounts();
+        assertEquals(kept.size() - 1, reopened.size());
+        for (Account account : reopened) {
+            Account expected = kept.stream()
+                    .filter(a -> a.getACCOUNT_ID() == account.getACCOUNT_ID()).findFirst().orElseThrow();
+            assertEquals(expected.getBalance(), account.getBalance());
+        }
+    }
+
+    @Test
+    void testFileGrowsAcrossSegments() {
+        List<CheckingAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accounts.add(new CheckingAccount());
+        }
+
+        dao.createAccounts(accounts);
+        dao.close();
+        dao = open();
+
+        assertEquals(20, dao.readAccounts().size());
+    }
+
+    @Test
+    void testRestoredIdsAreNotReusedByNewAccounts() {
+        CheckingAccount account = new CheckingAccount();
+        dao.createAccount(account);
+
+        long restoredId = dao.readAccounts().get(0).getACCOUNT_ID();
+
+        assertTrue(new CheckingAccount().getACCOUNT_ID() > restoredId);
+    }
+
+    @Test
+    void testParallelReadersNeverMoveTheIdCounterBackwards() throws InterruptedException {
+        List<CheckingAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            accounts.add(new CheckingAccount());
+        }
+        dao.createAccounts(accounts);
+        long highestId = accounts.get(accounts.size() - 1).getACCOUNT_ID();
+
+        // Readers share the read lock, so their restores run in parallel
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            readers.add(new Thread(() -> {
+                for (int round = 0; round < 20; round++) {
+                    dao.readAccounts();
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(new CheckingAccount().getACCOUNT_ID() > highestId);
+    }
+
+    @Test
+    void testClosedDaoThrowsException() {
+        dao.close();
+
+        assertThrows(IllegalStateException.class, () -> dao.readAccounts());
+    }
+
+    private MappedFileAccountDao open() {
+        // Small segments so tests cross segment boundaries
+        return new MappedFileAccountDao(file, 8, 60_000, 0.5);
+    }
+}
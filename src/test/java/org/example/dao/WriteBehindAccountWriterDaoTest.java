@@ -0,0 +1,226 @@
+package org.example.dao;
+
+import org.example.model.Account;
+import org.example.model.CheckingAccount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindAccountWriterDaoTest {
+
+    /**
+     * Records every batch it receives so tests can check how writes were grouped
+     */
+    private static class RecordingWriterDao implements AccountWriterDao {
+        private final List<List<Account>> createBatches = new ArrayList<>();
+        private final List<List<Account>> deleteBatches = new ArrayList<>();
+        private volatile CountDownLatch blockLatch;
+        private volatile RuntimeException failure;
+
+        @Override
+        public Account createAccount(Account account) {
+            throw new AssertionError("Single creates should not reach the delegate");
+        }
+
+        @Override
+        public void deleteAccount(Account account) {
+            throw new AssertionError("Single deletes should not reach the delegate");
+        }
+
+        @Override
+        public synchronized List<Account> createAccounts(Collection<? extends Account> accounts) {
+            awaitUnblock();
+            if (failure != null) {
+                throw failure;
+            }
+            createBatches.add(new ArrayList<>(accounts));
+            return new ArrayList<>(accounts);
+        }
+
+        @Override
+        public synchronized void deleteAccounts(Collection<? extends Account> accounts) {
+            awaitUnblock();
+            deleteBatches.add(new ArrayList<>(accounts));
+        }
+
+        synchronized int createdCount() {
+            return createBatches.stream().mapToInt(List::size).sum();
+        }
+
+        private void awaitUnblock() {
+            CountDownLatch latch = blockLatch;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private RecordingWriterDao delegate;
+    private WriteBehindAccountWriterDao dao;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new RecordingWriterDao();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dao != null) {
+            dao.close();
+        }
+    }
+
+    @Test
+    void testWritesAreBufferedUntilFlush() {
+        dao = new WriteBehindAccountWriterDao(delegate, 100, 100, 60_000);
+
+        dao.createAccount(new CheckingAccount());
+        dao.createAccount(new CheckingAccount());
+
+        assertEquals(2, dao.getPendingCount());
+        assertEquals(0, delegate.createdCount());
+
+        dao.flush();
+
+        assertEquals(0, dao.getPendingCount());
+        assertEquals(1, delegate.createBatches.size(), "Both creates should be sent as one batch");
+        assertEquals(2, delegate.createdCount());
+    }
+
+    @Test
+    void testWritesForSameAccountAreCoalesced() {
+        dao = new WriteBehindAccountWriterDao(delegate, 100, 100, 60_000);
+        Account account = new CheckingAccount();
+
+        dao.createAccount(account);
+        dao.deleteAccount(account);
+        dao.flush();
+
+        assertEquals(0, dao.getPendingCount());
+        assertTrue(delegate.createBatches.isEmpty(), "Create should be superseded by the later delete");
+        assertEquals(List.of(account), delegate.deleteBatches.get(0));
+    }
+
+    @Test
+    void testReachingBatchSizeTriggersFlush() throws InterruptedException {
+        dao = new WriteBehindAccountWriterDao(delegate, 3, 10, 60_000);
+
+        dao.createAccounts(List.of(new CheckingAccount(), new CheckingAccount(), new CheckingAccount()));
+
+        assertTrue(waitFor(() -> delegate.createdCount() == 3), "Full batch should be flushed without an explicit flush");
+    }
+
+    @Test
+    void testFlushIntervalTriggersFlush() throws InterruptedException {
+        dao = new WriteBehindAccountWriterDao(delegate, 100, 100, 50);
+
+        dao.createAccount(new CheckingAccount());
+
+        assertTrue(waitFor(() -> delegate.createdCount() == 1), "Buffered write should be flushed after the interval");
+    }
+
+    @Test
+    void testWriterBlocksWhenBufferFull() throws InterruptedException {
+        dao = new WriteBehindAccountWriterDao(delegate, 2, 4, 60_000);
+        delegate.blockLatch = new CountDownLatch(1);
+
+        // First batch is drained and then held inside the delegate, still taking up half the buffer
+        dao.createAccounts(List.of(new CheckingAccount(), new CheckingAccount()));
+        assertTrue(waitFor(() -> dao.getPendingCount() == 0));
+
+        // Second batch fills the rest of the buffer, the next write has to wait
+        dao.createAccounts(List.of(new CheckingAccount(), new CheckingAccount()));
+        AtomicBoolean written = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            dao.createAccount(new CheckingAccount());
+            written.set(true);
+        });
+        writer.start();
+
+        Thread.sleep(200);
+        assertFalse(written.get(), "Writer should block while the buffer is full");
+
+        delegate.blockLatch.countDown();
+        writer.join(5_000);
+        assertTrue(written.get(), "Writer should resume once the buffer is flushed");
+    }
+
+    @Test
+    void testFailedFlushesNeverGrowBufferPastCapacity() throws InterruptedException {
+        dao = new WriteBehindAccountWriterDao(delegate, 2, 4, 60_000);
+        delegate.failure = new IllegalStateException("Delegate unavailable");
+
+        dao.createAccounts(List.of(new CheckingAccount(), new CheckingAccount(),
+                new CheckingAccount(), new CheckingAccount()));
+        AtomicBoolean written = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                dao.createAccount(new CheckingAccount());
+            }
+            written.set(true);
+        });
+        writer.start();
+
+        // Every failed flush requeues its writes, the blocked writer must not refill the buffer meanwhile
+        for (int round = 0; round < 5; round++) {
+            assertThrows(IllegalStateException.class, () -> dao.flush());
+            assertTrue(dao.getPendingCount() <= 4, "Buffer grew to " + dao.getPendingCount());
+        }
+        assertFalse(written.get(), "Writer should stay blocked while flushes fail");
+
+        delegate.failure = null;
+        assertTrue(waitFor(() -> {
+            dao.flush();
+            return written.get();
+        }), "Writer should resume once flushes succeed");
+        writer.join(5_000);
+        dao.flush();
+        assertEquals(14, delegate.createdCount());
+    }
+
+    @Test
+    void testCloseFlushesPendingWrites() {
+        dao = new WriteBehindAccountWriterDao(delegate, 100, 100, 60_000);
+        dao.createAccount(new CheckingAccount());
+
+        dao.close();
+
+        assertEquals(1, delegate.createdCount());
+        assertThrows(IllegalStateException.class, () -> dao.createAccount(new CheckingAccount()));
+    }
+
+    @Test
+    void testInvalidConfigurationThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteBehindAccountWriterDao(delegate, 0, 10, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteBehindAccountWriterDao(delegate, 10, 5, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WriteBehindAccountWriterDao(delegate, 10, 10, 0));
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.index;
+
+import org.example.model.Account;
+import org.example.model.CheckingAccount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceRangeIndexTest {
+
+    private static final double[] FEE_BANDS = {100, 500, 1000, 2000};
+
+    private BalanceRangeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BalanceRangeIndex();
+    }
+
+    @Test
+    void testCountPerBandUsesInclusiveUpperBounds() {
+        for (double balance : new double[] {0, 100, 100.01, 500, 750, 1000, 1500, 2000, 2000.5, 10_000}) {
+            index.add(accountWithBalance(balance));
+        }
+
+        assertArrayEquals(new int[] {2, 2, 2, 2, 2}, index.countPerBand(FEE_BANDS));
+    }
+
+    @Test
+    void testCountBetweenHonoursBoundFlags() {
+        index.add(accountWithBalance(500));
+        index.add(accountWithBalance(750));
+        index.add(accountWithBalance(1000));
+
+        assertEquals(2, index.countBetween(500, false, 1000, true));
+        assertEquals(3, index.countBetween(500, true, 1000, true));
+        assertEquals(1, index.countBetween(500, false, 1000, false));
+        assertEquals(0, index.countBetween(1000, false, 500, true));
+    }
+
+    @Test
+    void testFindBetweenReturnsAccountsOrderedByBalance() {
+        Account high = accountWithBalance(900);
+        Account low = accountWithBalance(600);
+        index.add(high);
+        index.add(accountWithBalance(50));
+        index.add(low);
+
+        assertEquals(List.of(low, high), index.findBetween(500, false, 1000, true));
+    }
+
+    @Test
+    void testBalanceChangesMoveAccountsBetweenBands() {
+        Account account = accountWithBalance(50);
+        index.add(account);
+
+        account.deposit(600);
+        assertArrayEquals(new int[] {0, 0, 1, 0, 0}, index.countPerBand(FEE_BANDS));
+
+        account.withdraw(200);
+        assertArrayEquals(new int[] {0, 1, 0, 0, 0}, index.countPerBand(FEE_BANDS));
+
+        account.correctBalance(5000);
+        assertArrayEquals(new int[] {0, 0, 0, 0, 1}, index.countPerBand(FEE_BANDS));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testBalanceChangesDoNotWaitForQueries() throws InterruptedException {
+        Account account = accountWithBalance(50);
+        index.add(account);
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread query = new Thread(() -> {
+            // Holds the index's monitor the way a long running query does
+            synchronized (index) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        query.start();
+        held.await();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> account.deposit(600));
+        } finally {
+            release.countDown();
+            query.join();
+        }
+
+        assertArrayEquals(new int[] {0, 0, 1, 0, 0}, index.countPerBand(FEE_BANDS));
+    }
+
+    @Test
+    void testRemovedAccountIsNoLongerFollowed() {
+        Account account = accountWithBalance(50);
+        index.add(account);
+
+        index.remove(account);
+        account.deposit(600);
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.countBetween(Double.NEGATIVE_INFINITY, true, Double.POSITIVE_INFINITY, true));
+    }
+
+    @Test
+    void testDepositWhileAddingLeavesAccountInTheRightBand() throws InterruptedException {
+        Thread[] depositor = new Thread[1];
+        Account account = new CheckingAccount() {
+            @Override
+            public double getBalance() {
+                double balance = super.getBalance();
+                if (depositor[0] == null) {
+                    // Another thread deposits right after add() has read the balance
+                    depositor[0] = new Thread(() -> deposit(500));
+                    depositor[0].start();
+                    try {
+                        depositor[0].join(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return balance;
+            }
+        };
+        account.correctBalance(50);
+
+        index.add(account);
+        depositor[0].join();
+
+        assertEquals(550, account.getBalance());
+        assertArrayEquals(new int[] {0, 0, 1, 0, 0}, index.countPerBand(FEE_BANDS));
+    }
+
+    @Test
+    void testCountsMatchScanForRandomBalances() {
+        Random random = new Random(7);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Account account = accountWithBalance(random.nextInt(3000));
+            accounts.add(account);
+            index.add(account);
+        }
+        for (int i = 0; i < 500; i++) {
+            accounts.get(random.nextInt(accounts.size())).correctBalance(random.nextInt(3000));
+        }
+
+        int[] expected = new int[FEE_BANDS.length + 1];
+        for (Account account : accounts) {
+            int band = 0;
+            while (band < FEE_BANDS.length && account.getBalance() > FEE_BANDS[band]) {
+                band++;
+            }
+            expected[band]++;
+        }
+
+        assertArrayEquals(expected, index.countPerBand(FEE_BANDS));
+    }
+
+    @Test
+    void testUnsortedBandsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> index.countPerBand(new double[] {500, 100}));
+    }
+
+    private static Account accountWithBalance(double balance) {
+        Account account = new CheckingAccount();
+        account.correctBalance(balance);
+        return account;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.index;
+
+import org.example.model.Account;
+import org.example.model.CheckingAccount;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongAccountIndexTest {
+
+    @Test
+    void testPutAndGet() {
+        LongAccountIndex index = new LongAccountIndex();
+        Account account = new CheckingAccount();
+
+        assertNull(index.put(account));
+
+        assertSame(account, index.get(account.getACCOUNT_ID()));
+        assertNull(index.get(account.getACCOUNT_ID() + 1));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testPutReplacesAccountWithSameId() {
+        LongAccountIndex index = new LongAccountIndex();
+        CheckingAccount original = new CheckingAccount(7L, 0, 1);
+        CheckingAccount replacement = new CheckingAccount(7L, 50, 1);
+
+        index.put(original);
+
+        assertSame(original, index.put(replacement));
+        assertSame(replacement, index.get(7L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        LongAccountIndex index = new LongAccountIndex(2);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Account account = new CheckingAccount();
+            accounts.add(account);
+            index.put(account);
+        }
+
+        assertEquals(1_000, index.size());
+        for (Account account : accounts) {
+            assertSame(account, index.get(account.getACCOUNT_ID()));
+        }
+    }
+
+    @Test
+    void testRemoveKeepsOtherEntriesReachable() {
+        LongAccountIndex index = new LongAccountIndex();
+        Random random = new Random(42);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Negative IDs so restoring them does not move the shared account ID counter
+            Account account = new CheckingAccount(random.nextLong() | Long.MIN_VALUE, 0, 1);
+            accounts.add(account);
+            index.put(account);
+        }
+
+        for (int i = 0; i < accounts.size(); i += 2) {
+            assertSame(accounts.get(i), index.remove(accounts.get(i).getACCOUNT_ID()));
+        }
+
+        assertEquals(250, index.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            Account expected = i % 2 == 0 ? null : accounts.get(i);
+            assertSame(expected, index.get(accounts.get(i).getACCOUNT_ID()));
+        }
+    }
+
+    @Test
+    void testRemoveUnknownIdReturnsNull() {
+        LongAccountIndex index = new LongAccountIndex();
+
+        assertNull(index.remove(123L));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testNegativeExpectedSizeThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new LongAccountIndex(-1));
+    }
+}
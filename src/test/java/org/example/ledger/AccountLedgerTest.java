@@ -0,0 +1,295 @@
+package org.example.ledger;
+
+import org.example.model.Account;
+import org.example.model.BalanceChangeType;
+import org.example.model.CheckingAccount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLedgerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccountLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.close();
+    }
+
+    @Test
+    void testFollowedAccountChangesAreRecorded() {
+        Account account = new CheckingAccount();
+        ledger.follow(account);
+
+        account.deposit(100);
+        account.withdraw(30);
+        account.chargeFee(5);
+        account.correctBalance(80);
+
+        List<LedgerEvent> history = ledger.history(account.getACCOUNT_ID());
+        assertEquals(List.of(BalanceChangeType.DEPOSIT, BalanceChangeType.WITHDRAWAL,
+                        BalanceChangeType.FEE, BalanceChangeType.CORRECTION),
+                history.stream().map(LedgerEvent::type).toList());
+        assertEquals(List.of(100.0, 30.0, 5.0, 80.0), history.stream().map(LedgerEvent::amount).toList());
+        assertEquals(80, ledger.balanceOf(account.getACCOUNT_ID()));
+        assertEquals(4, ledger.getLastSequence());
+    }
+
+    @Test
+    void testFollowRecordsOpeningBalance() {
+        Account account = new CheckingAccount(987_654L, 250, 1);
+
+        ledger.follow(account);
+        account.deposit(50);
+
+        assertEquals(300, ledger.balanceOf(987_654L));
+        assertEquals(BalanceChangeType.CORRECTION, ledger.history(987_654L).get(0).type());
+    }
+
+    @Test
+    void testUnfollowedAccountIsNoLongerRecorded() {
+        Account account = new CheckingAccount();
+        ledger.follow(account);
+        account.deposit(10);
+
+        ledger.unfollow(account);
+        account.deposit(10);
+
+        assertEquals(10, ledger.balanceOf(account.getACCOUNT_ID()));
+    }
+
+    @Test
+    void testReopenReplaysEventsWithoutSnapshot() {
+        Account account = new CheckingAccount();
+        ledger.follow(account);
+        account.deposit(42.5);
+        account.withdraw(2.5);
+
+        ledger.close();
+        ledger = open();
+
+        assertEquals(40, ledger.balanceOf(account.getACCOUNT_ID()));
+        assertEquals(2, ledger.getLastSequence());
+    }
+
+    @Test
+    void testReopenUsesIncrementalSnapshotsAndRecentEvents() throws IOException {
+        Account first = new CheckingAccount();
+        Account second = new CheckingAccount();
+        ledger.follow(first);
+        ledger.follow(second);
+
+        first.deposit(100);
+        second.deposit(200);
+        ledger.snapshot();      // full
+        first.deposit(1);
+        ledger.snapshot();      // incremental, only the first account
+        second.withdraw(50);    // only in the segment files
+
+        assertEquals(3, ledger.getSnapshotSequence());
+        ledger.close();
+        ledger = open();
+
+        assertEquals(101, ledger.balanceOf(first.getACCOUNT_ID()));
+        assertEquals(150, ledger.balanceOf(second.getACCOUNT_ID()));
+        assertEquals(3, ledger.getSnapshotSequence());
+        assertEquals(2, countFiles(".snap"));
+    }
+
+    @Test
+    void testFullSnapshotReplacesOlderSnapshots() throws IOException {
+        Account account = new CheckingAccount();
+        ledger.follow(account);
+
+        for (int i = 0; i < 4; i++) {
+            account.deposit(1);
+            ledger.snapshot();
+        }
+
+        // Full, incremental, incremental, then full again which removes the ones before it
+        assertEquals(1, countFiles(".snap"));
+        ledger.close();
+        ledger = open();
+        assertEquals(4, ledger.balanceOf(account.getACCOUNT_ID()));
+    }
+
+    @Test
+    void testRebuildMatchesAccountsAcrossSegments() throws IOException {
+        Random random = new Random(11);
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Account account = new CheckingAccount();
+            ledger.follow(account);
+            accounts.add(account);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            Account account = accounts.get(random.nextInt(accounts.size()));
+            switch (random.nextInt(4)) {
+                case 0 -> account.deposit(random.nextInt(1000) / 100.0);
+                case 1 -> account.withdraw(random.nextInt(500) / 100.0);
+                case 2 -> account.chargeFee(random.nextInt(20));
+                default -> {
+                    if (random.nextInt(10) == 0) {
+                        account.correctBalance(random.nextInt(100));
+                    } else {
+                        account.deposit(1);
+                    }
+                }
+            }
+            if (i == 1_000) {
+                ledger.snapshot();
+            }
+        }
+
+        assertTrue(countFiles(".seg") > 1, "Events should span several segments");
+        LedgerBalances rebuilt = ledger.rebuildBalances();
+        for (Account account : accounts) {
+            assertEquals(account.getBalance(), rebuilt.balanceOf(account.getACCOUNT_ID()),
+                    "Replay should reproduce the balance exactly");
+        }
+
+        ledger.close();
+        ledger = open();
+        for (Account account : accounts) {
+            assertEquals(account.getBalance(), ledger.balanceOf(account.getACCOUNT_ID()));
+        }
+    }
+
+    @Test
+    void testConcurrentChangesWhileFlushingAndSnapshotting() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Account account = new CheckingAccount();
+            ledger.follow(account);
+            accounts.add(account);
+        }
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            workers.add(new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 5_000; i++) {
+                    Account account = accounts.get(random.nextInt(accounts.size()));
+                    if (random.nextBoolean()) {
+                        account.deposit(1 + random.nextInt(10));
+                    } else {
+                        account.withdraw(1 + random.nextInt(10));
+                    }
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (int round = 0; round < 20; round++) {
+            ledger.flush();
+            ledger.snapshot();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(20_000, ledger.getLastSequence());
+        LedgerBalances rebuilt = ledger.rebuildBalances();
+        for (Account account : accounts) {
+            assertEquals(account.getBalance(), ledger.balanceOf(account.getACCOUNT_ID()));
+            assertEquals(account.getBalance(), rebuilt.balanceOf(account.getACCOUNT_ID()));
+        }
+
+        ledger.close();
+        ledger = open();
+        assertEquals(20_000, ledger.getLastSequence());
+        for (Account account : accounts) {
+            assertEquals(account.getBalance(), ledger.balanceOf(account.getACCOUNT_ID()));
+        }
+    }
+
+    @Test
+    void testFullBuffersAreWrittenInTheBackground() throws Exception {
+        ledger.close();
+        ledger = new AccountLedger(tempDir, 1 << 16, 600_000, 600_000, 3);
+        Account account = new CheckingAccount();
+        ledger.follow(account);
+
+        for (int i = 0; i < AccountLedger.WRITE_BUFFER_EVENTS; i++) {
+            account.deposit(1);
+        }
+
+        // No flush() and a long flush interval, only the hand-off of the full buffer writes it out
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (segmentBytes() < (long) AccountLedger.WRITE_BUFFER_EVENTS * AccountLedger.RECORD_SIZE
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals((long) AccountLedger.WRITE_BUFFER_EVENTS * AccountLedger.RECORD_SIZE, segmentBytes());
+    }
+
+    @Test
+    void testPartiallyWrittenEventIsDiscardedOnReopen() throws IOException {
+        Account account = new CheckingAccount();
+        ledger.follow(account);
+        account.deposit(10);
+        ledger.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            segment = files.filter(path -> path.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        Files.write(segment, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        ledger = open();
+        assertEquals(1, ledger.getLastSequence());
+        account.deposit(5);
+        ledger.follow(account);
+        assertEquals(15, ledger.balanceOf(account.getACCOUNT_ID()));
+    }
+
+    @Test
+    void testClosedLedgerRejectsDirectRecords() {
+        ledger.close();
+
+        assertThrows(IllegalStateException.class,
+                () -> ledger.record(1L, BalanceChangeType.DEPOSIT, 10));
+    }
+
+    private AccountLedger open() {
+        // Small segments and long intervals so tests control when snapshots happen
+        return new AccountLedger(tempDir, 256, 60_000, 600_000, 3);
+    }
+
+    private long segmentBytes() throws IOException {
+        long bytes = 0;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            for (Path path : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".seg"))::iterator) {
+                bytes += Files.size(path);
+            }
+        }
+        return bytes;
+    }
+
+    private long countFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(path -> path.toString().endsWith(suffix)).count();
+        }
+    }
+}
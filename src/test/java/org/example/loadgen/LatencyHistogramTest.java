@@ -0,0 +1,80 @@
+package org.example.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getMin());
+        assertEquals(50.5, histogram.getMean());
+    }
+
+    @Test
+    void testLargeValuesStayWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1_000; value <= 10_000_000; value += 997) {
+            histogram.record(value);
+        }
+
+        long p50 = histogram.getValueAtPercentile(50);
+        assertEquals(5_000_000, p50, 5_000_000 * 0.02);
+        assertTrue(histogram.getValueAtPercentile(100) <= histogram.getMax());
+    }
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        long[] values = {0, 127, 128, 129, 255, 256, 1_000_003, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexFor(value);
+            assertTrue(LatencyHistogram.highestValueIn(index) >= value, "Bucket should contain " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueIn(index - 1) < value,
+                        "Previous bucket should end below " + value);
+            }
+        }
+    }
+
+    @Test
+    void testMergeCombinesCounts() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(20);
+        second.record(30);
+
+        first.merge(second);
+
+        assertEquals(3, first.getCount());
+        assertEquals(10, first.getMin());
+        assertEquals(30, first.getMax());
+        assertEquals(20, first.getValueAtPercentile(50));
+    }
+
+    @Test
+    void testInvalidPercentileThrowsException() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.loadgen;
+
+import org.example.loadgen.LoadGeneratorConfig.Operation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParseAppliesOptions() {
+        LoadGeneratorConfig config = LoadGeneratorConfig.parse(new String[] {
+                "--threads=12", "--thread-type=virtual", "--duration=500ms", "--warmup=0",
+                "--boxes=3", "--hold-millis=0", "--accounts=50", "--mix=box=2,fee=1",
+                "--output=out/report.csv", "--seed=7"});
+
+        assertEquals(12, config.threads());
+        assertTrue(config.virtualThreads());
+        assertEquals(Duration.ofMillis(500), config.duration());
+        assertEquals(Duration.ZERO, config.warmup());
+        assertEquals(3, config.boxPoolSize());
+        assertEquals(50, config.initialAccounts());
+        assertEquals(2, config.mix().get(Operation.BOX));
+        assertNull(config.mix().get(Operation.DEPOSIT));
+        assertEquals(Path.of("out/report.csv"), config.output());
+        assertEquals(7, config.seed());
+    }
+
+    @Test
+    void testParseRejectsInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> LoadGeneratorConfig.parse(new String[] {"--threads=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGeneratorConfig.parse(new String[] {"--bogus=1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGeneratorConfig.parse(new String[] {"--mix=teleport=1"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGeneratorConfig.parse(new String[] {"--mix=box=0"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGeneratorConfig.parse(new String[] {"--duration=soon"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadGeneratorConfig.parse(new String[] {"--output=report.txt"}));
+    }
+
+    @Test
+    void testRunMeasuresEveryOperationAndWritesReports() throws IOException {
+        Path json = tempDir.resolve("report.json");
+        LoadGeneratorConfig config = LoadGeneratorConfig.parse(new String[] {
+                "--threads=4", "--duration=1s", "--warmup=100ms", "--boxes=2", "--hold-millis=0",
+                "--accounts=200", "--account-file=" + tempDir.resolve("accounts.dat"),
+                "--output=" + json, "--seed=1"});
+
+        LoadReport report = new LoadGenerator(config).run();
+
+        assertTrue(report.getTotalOperations() > 0);
+        for (String metric : List.of(LoadGenerator.BOX_ALLOCATE, LoadGenerator.BOX_RELEASE,
+                LoadGenerator.ACCOUNT_CREATE, LoadGenerator.ACCOUNT_DEPOSIT,
+                LoadGenerator.ACCOUNT_WITHDRAW, LoadGenerator.ACCOUNT_TRANSFER, LoadGenerator.FEE_RUN)) {
+            assertTrue(report.getHistogram(metric).getCount() > 0, metric + " should have been measured");
+        }
+
+        report.write(json);
+        String jsonContent = Files.readString(json);
+        assertTrue(jsonContent.contains("\"name\": \"box-allocate\""));
+        assertTrue(jsonContent.contains("\"p99.9\""));
+
+        Path csv = tempDir.resolve("report.csv");
+        report.write(csv);
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals("metric,count,errors,ops_per_sec,min_us,mean_us,p50_us,p90_us,p99_us,p999_us,p9999_us,max_us",
+                lines.get(0));
+        assertEquals(9, lines.size(), "Header, one row per metric and a total row");
+        for (String line : lines) {
+            assertEquals(12, line.split(",", -1).length, "Every row should have all columns: " + line);
+        }
+    }
+
+    @Test
+    void testRunTransfersOnly() {
+        LoadGeneratorConfig config = LoadGeneratorConfig.parse(new String[] {
+                "--threads=8", "--duration=500ms", "--warmup=0", "--accounts=1000", "--mix=transfer=1",
+                "--account-file=" + tempDir.resolve("accounts.dat"),
+                "--output=" + tempDir.resolve("report.json")});
+
+        LoadReport report = new LoadGenerator(config).run();
+
+        assertTrue(report.getHistogram(LoadGenerator.ACCOUNT_TRANSFER).getCount() > 0);
+        assertTrue(report.getStuckWorkers().isEmpty());
+        assertEquals(0, report.getHistogram(LoadGenerator.ACCOUNT_DEPOSIT).getCount());
+    }
+
+    @Test
+    void testRunOnVirtualThreads() {
+        LoadGeneratorConfig config = LoadGeneratorConfig.parse(new String[] {
+                "--threads=64", "--virtual", "--duration=300ms", "--warmup=0", "--boxes=4",
+                "--hold-millis=1", "--accounts=100", "--mix=box=1,deposit=1",
+                "--account-file=" + tempDir.resolve("accounts.dat"),
+                "--output=" + tempDir.resolve("report.json")});
+
+        LoadReport report = new LoadGenerator(config).run();
+
+        assertTrue(report.getHistogram(LoadGenerator.BOX_ALLOCATE).getCount() > 0);
+        assertEquals(0, report.getHistogram(LoadGenerator.FEE_RUN).getCount());
+    }
+
+    /**
+     * More virtual threads than carrier threads wait for a tiny box pool while the holders sleep,
+     * which deadlocks if waiting for a box pins the carrier
+     */
+    @Test
+    void testRunManyVirtualThreadsContendingForFewBoxes() {
+        LoadGeneratorConfig config = LoadGeneratorConfig.parse(new String[] {
+                "--threads=600", "--virtual", "--duration=2s", "--warmup=0", "--boxes=2",
+                "--hold-millis=5", "--accounts=10", "--mix=box=1", "--log-level=ERROR",
+                "--account-file=" + tempDir.resolve("accounts.dat"),
+                "--output=" + tempDir.resolve("report.json")});
+
+        LoadReport report = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> new LoadGenerator(config).run());
+
+        assertTrue(report.getHistogram(LoadGenerator.BOX_ALLOCATE).getCount() > 0);
+        assertTrue(report.getStuckWorkers().isEmpty(), "Stuck workers: " + report.getStuckWorkers());
+        assertTrue(report.toJson().contains("\"stuckWorkers\": 0"));
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckingAccountTest {
+
+    @Test
+    void testGetNextCheckNumberIncrements() {
+        CheckingAccount account = new CheckingAccount();
+
+        assertEquals(1, account.getNextCheckNumber());
+        assertEquals(2, account.getNextCheckNumber());
+        assertEquals(3, account.peekNextCheckNumber());
+    }
+
+    @Test
+    void testReserveCheckNumbersReturnsContiguousRange() {
+        CheckingAccount account = new CheckingAccount();
+        account.setNextCheckNumber(100);
+
+        CheckNumberRange range = account.reserveCheckNumbers(50);
+
+        assertEquals(100, range.first());
+        assertEquals(149, range.last());
+        assertTrue(range.contains(120));
+        assertFalse(range.contains(150));
+        assertEquals(150, account.peekNextCheckNumber());
+        assertEquals(150, account.getNextCheckNumber());
+    }
+
+    @Test
+    void testReserveCheckNumbersRejectsInvalidCount() {
+        CheckingAccount account = new CheckingAccount();
+
+        assertThrows(IllegalArgumentException.class, () -> account.reserveCheckNumbers(0));
+        assertThrows(IllegalArgumentException.class, () -> account.reserveCheckNumbers(-5));
+    }
+
+    @Test
+    void testReserveCheckNumbersRejectsOverflow() {
+        CheckingAccount account = new CheckingAccount();
+        account.setNextCheckNumber(Integer.MAX_VALUE - 10);
+
+        assertThrows(IllegalStateException.class, () -> account.reserveCheckNumbers(20));
+        assertEquals(Integer.MAX_VALUE - 10, account.peekNextCheckNumber(),
+                "Failed reservation should not consume numbers");
+    }
+
+    @Test
+    void testConcurrentIssuanceNeverDuplicatesNumbers() throws InterruptedException {
+        CheckingAccount account = new CheckingAccount();
+        int threads = 8;
+        int singlesPerThread = 5_000;
+        int blocksPerThread = 100;
+        int blockSize = 25;
+
+        BitSet issued = new BitSet();
+        List<Thread> workers = new ArrayList<>();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<String> duplicates = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                List<Integer> numbers = new ArrayList<>();
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < singlesPerThread; i++) {
+                    numbers.add(account.getNextCheckNumber());
+                    if (i % (singlesPerThread / blocksPerThread) == 0) {
+                        CheckNumberRange range = account.reserveCheckNumbers(blockSize);
+                        for (int n = range.first(); n <= range.last(); n++) {
+                            numbers.add(n);
+                        }
+                    }
+                }
+                synchronized (issued) {
+                    for (int number : numbers) {
+                        if (issued.get(number)) {
+                            duplicates.add("Duplicate check number " + number);
+                        }
+                        issued.set(number);
+                    }
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        startLatch.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int total = threads * (singlesPerThread + blocksPerThread * blockSize);
+        assertTrue(duplicates.isEmpty(), duplicates.toString());
+        assertEquals(total, issued.cardinality());
+        assertEquals(total + 1, account.peekNextCheckNumber());
+    }
+}
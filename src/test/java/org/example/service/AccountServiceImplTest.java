@@ -10,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -45,6 +46,7 @@ class AccountServiceImplTest {
     @Test
     void testCreateAccountCallsWriteDaoCreate() {
         Account account = new CheckingAccount();
+        when(writerDAO.createAccount(account)).thenReturn(account);
 
         service.createAccount(account);
 
@@ -59,4 +61,122 @@ class AccountServiceImplTest {
 
         verify(writerDAO, times(1)).deleteAccount(account);
     }
+
+    @Test
+    void testCreateAccountsCallsWriterDaoBulkCreate() {
+        List<Account> accounts = List.of(new CheckingAccount(), new CheckingAccount());
+        when(writerDAO.createAccounts(accounts)).thenReturn(accounts);
+
+        List<Account> result = service.createAccounts(accounts);
+
+        assertEquals(accounts, result);
+        verify(writerDAO, times(1)).createAccounts(accounts);
+        verify(writerDAO, never()).createAccount(any());
+    }
+
+    @Test
+    void testRemoveAccountsCallsWriterDaoBulkDelete() {
+        List<Account> accounts = List.of(new CheckingAccount(), new CheckingAccount());
+
+        service.removeAccounts(accounts);
+
+        verify(writerDAO, times(1)).deleteAccounts(accounts);
+        verify(writerDAO, never()).deleteAccount(any());
+    }
+
+    @Test
+    void testFindByIdUsesIndexBuiltOnce() {
+        Account first = new CheckingAccount();
+        Account second = new CheckingAccount();
+        when(readerDAO.readAccounts()).thenReturn(List.of(first, second));
+
+        assertEquals(Optional.of(second), service.findById(second.getACCOUNT_ID()));
+        assertEquals(Optional.of(first), service.findById(first.getACCOUNT_ID()));
+        assertEquals(Optional.empty(), service.findById(-1L));
+
+        verify(readerDAO, times(1)).readAccounts();
+    }
+
+    @Test
+    void testFindByIdsSkipsUnknownIds() {
+        Account first = new CheckingAccount();
+        Account second = new CheckingAccount();
+        when(readerDAO.readAccounts()).thenReturn(List.of(first, second));
+
+        List<Account> result = service.findByIds(new long[] {second.getACCOUNT_ID(), -1L, first.getACCOUNT_ID()});
+
+        assertEquals(List.of(second, first), result);
+    }
+
+    @Test
+    void testIndexFollowsCreateAndRemove() {
+        when(readerDAO.readAccounts()).thenReturn(List.of());
+        service.findById(0L);
+
+        Account account = new CheckingAccount();
+        when(writerDAO.createAccount(account)).thenReturn(account);
+        service.createAccount(account);
+        assertEquals(Optional.of(account), service.findById(account.getACCOUNT_ID()));
+
+        service.removeAccount(account);
+        assertEquals(Optional.empty(), service.findById(account.getACCOUNT_ID()));
+    }
+
+    @Test
+    void testAccountsCreatedBeforeFirstLookupKeepTheirIdentity() {
+        Account created = new CheckingAccount();
+        Account buffered = new CheckingAccount();
+        when(writerDAO.createAccounts(List.of(created, buffered))).thenReturn(List.of(created, buffered));
+        service.createAccounts(List.of(created, buffered));
+
+        // The reader hands out a copy of the first account and has not seen the second one yet
+        Account copy = new CheckingAccount(created.getACCOUNT_ID(), created.getBalance(), 1);
+        when(readerDAO.readAccounts()).thenReturn(List.of(copy));
+
+        assertSame(created, service.findById(created.getACCOUNT_ID()).orElseThrow());
+        assertSame(buffered, service.findById(buffered.getACCOUNT_ID()).orElseThrow());
+    }
+
+    @Test
+    void testIndexFollowsBulkCreateAndRemove() {
+        when(readerDAO.readAccounts()).thenReturn(List.of());
+        service.findById(0L);
+
+        List<Account> accounts = List.of(new CheckingAccount(), new CheckingAccount());
+        when(writerDAO.createAccounts(accounts)).thenReturn(accounts);
+        service.createAccounts(accounts);
+        assertEquals(2, service.findByIds(new long[] {
+                accounts.get(0).getACCOUNT_ID(), accounts.get(1).getACCOUNT_ID()}).size());
+
+        service.removeAccounts(accounts);
+        assertEquals(Optional.empty(), service.findById(accounts.get(0).getACCOUNT_ID()));
+    }
+
+    @Test
+    void testBalanceQueriesFollowBalanceChanges() {
+        Account low = new CheckingAccount();
+        Account high = new CheckingAccount();
+        high.deposit(750);
+        when(readerDAO.readAccounts()).thenReturn(List.of(low, high));
+
+        assertEquals(List.of(high), service.findByBalanceRange(500, 1000));
+        assertArrayEquals(new int[] {1, 0, 1, 0, 0},
+                service.countByBalanceBands(new FeeCalculatorServiceImpl().getFeeBandUpperBounds()));
+
+        low.deposit(600);
+
+        assertEquals(2, service.countByBalanceRange(500, 1000));
+    }
+
+    @Test
+    void testRemovedAccountLeavesBalanceIndex() {
+        Account account = new CheckingAccount();
+        account.deposit(50);
+        when(readerDAO.readAccounts()).thenReturn(List.of(account));
+        assertEquals(1, service.countByBalanceRange(0, 100));
+
+        service.removeAccount(account);
+
+        assertEquals(0, service.countByBalanceRange(0, 100));
+    }
 }
@@ -36,4 +36,16 @@ class FeeCalculatorServiceImplTest {
         assertEquals(0.0, service.calculateFee(2500));
         assertEquals(0.0, service.calculateFee(10000));
     }
+
+    @Test
+    void testFeeBandUpperBoundsMatchFeeThresholds() {
+        double[] bounds = service.getFeeBandUpperBounds();
+
+        assertArrayEquals(new double[] {100, 500, 1000, 2000}, bounds);
+        for (int i = 0; i < bounds.length; i++) {
+            double feeAtBound = service.calculateFee(bounds[i]);
+            assertNotEquals(feeAtBound, service.calculateFee(bounds[i] + 0.01),
+                    "Fee should change just above " + bounds[i]);
+        }
+    }
 }
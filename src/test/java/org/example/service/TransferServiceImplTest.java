@@ -0,0 +1,123 @@
+package org.example.service;
+
+import org.example.dao.AccountWriterDao;
+import org.example.model.Account;
+import org.example.model.CheckingAccount;
+import org.example.model.TransferRequest;
+import org.example.model.TransferStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TransferServiceImplTest {
+
+    private List<Account> accounts;
+    private TransferService service;
+
+    @BeforeEach
+    void setUp() {
+        accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Account account = new CheckingAccount();
+            account.deposit(100);
+            accounts.add(account);
+        }
+        AccountService accountService = new AccountServiceImpl(() -> accounts, mock(AccountWriterDao.class));
+        service = new TransferServiceImpl(accountService, 4);
+    }
+
+    @Test
+    void testTransferMovesMoney() {
+        assertEquals(TransferStatus.COMPLETED, service.transfer(id(0), id(1), 40));
+
+        assertEquals(60, accounts.get(0).getBalance());
+        assertEquals(140, accounts.get(1).getBalance());
+    }
+
+    @Test
+    void testTransferRejectsOverdraft() {
+        assertEquals(TransferStatus.INSUFFICIENT_FUNDS, service.transfer(id(0), id(1), 100.01));
+
+        assertEquals(100, accounts.get(0).getBalance());
+        assertEquals(100, accounts.get(1).getBalance());
+    }
+
+    @Test
+    void testTransferRejectsInvalidRequests() {
+        assertEquals(TransferStatus.INVALID_AMOUNT, service.transfer(id(0), id(1), 0));
+        assertEquals(TransferStatus.INVALID_AMOUNT, service.transfer(id(0), id(1), -5));
+        assertEquals(TransferStatus.INVALID_AMOUNT, service.transfer(id(0), id(1), Double.NaN));
+        assertEquals(TransferStatus.SAME_ACCOUNT, service.transfer(id(0), id(0), 10));
+        assertEquals(TransferStatus.ACCOUNT_NOT_FOUND, service.transfer(id(0), -1L, 10));
+        assertEquals(100, accounts.get(0).getBalance());
+    }
+
+    @Test
+    void testTransferAllReportsEachTransfer() {
+        List<TransferStatus> results = service.transferAll(List.of(
+                new TransferRequest(id(0), id(1), 50),
+                new TransferRequest(id(0), id(2), 80),
+                new TransferRequest(id(1), id(2), 150)));
+
+        assertEquals(List.of(TransferStatus.COMPLETED, TransferStatus.INSUFFICIENT_FUNDS, TransferStatus.COMPLETED),
+                results);
+        assertEquals(50, accounts.get(0).getBalance());
+        assertEquals(0, accounts.get(1).getBalance());
+        assertEquals(250, accounts.get(2).getBalance());
+    }
+
+    @Test
+    void testConcurrentTransfersConserveMoneyWithoutDeadlock() throws InterruptedException {
+        int threads = 8;
+        int transfersPerThread = 5_000;
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch completionLatch = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    startLatch.await();
+                    for (int i = 0; i < transfersPerThread; i++) {
+                        int from = random.nextInt(accounts.size());
+                        int to = (from + 1 + random.nextInt(accounts.size() - 1)) % accounts.size();
+                        service.transfer(id(from), id(to), 1 + random.nextInt(30));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    completionLatch.countDown();
+                }
+            }).start();
+        }
+        startLatch.countDown();
+
+        assertTrue(completionLatch.await(30, TimeUnit.SECONDS), "Transfers should finish without deadlocking");
+        double total = 0;
+        for (Account account : accounts) {
+            assertTrue(account.getBalance() >= 0, "No account should be overdrawn");
+            total += account.getBalance();
+        }
+        assertEquals(400, total);
+    }
+
+    @Test
+    void testInvalidStripeCountThrowsException() {
+        AccountService accountService = new AccountServiceImpl(() -> accounts, mock(AccountWriterDao.class));
+
+        assertThrows(IllegalArgumentException.class, () -> new TransferServiceImpl(accountService, 0));
+    }
+
+    private long id(int index) {
+        return accounts.get(index).getACCOUNT_ID();
+    }
+}